@@ -3,62 +3,270 @@ package pepse;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
 import pepse.world.Block;
-import pepse.world.trees.Fruit;
+import pepse.world.SpatialHash;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+import pepse.world.trees.LeafSway;
 import pepse.world.trees.Tree;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Represents a chunk of the game world, grouping ground blocks and flora (trees and their parts).
  * Manages loading and unloading of its contained game objects into the game's object collection.
+ * <p>
+ * A chunk is held as its compact {@link ChunkData} only: column heights and palette color indices,
+ * tree descriptions and fruit state bit masks. Its game objects are materialized from the data when
+ * the chunk starts being attached, sorted by x-coordinate, each with its precomputed layer, and released,
+ * with the state of their fruits written back to the data, once the chunk is fully detached.
+ * So a chunk that is cached but not attached takes kilobytes rather than full game objects.
+ * Released objects go back to the terrain's and flora's pools, and are reused by chunks materialized in later frames.
+ * A chunk can be attached and detached all at once, or a few objects at a time under a time budget,
+ * starting from the side nearest the avatar.
  */
 public class Chunk {
-    private static final int LEAF_LAYER = -101;
+
+    /**
+     * The layer of the ground blocks. Ground blocks are visual only: ground collisions are resolved
+     * against the terrain's height map, so this layer is excluded from the engine's collision pass.
+     */
+    public static final int GROUND_LAYER = -102;
+
+    /** The layer of the leaves, which never collide. */
+    public static final int LEAF_LAYER = -101;
+
+    /**
+     * The layer of the fruits. Fruit pickup is resolved through the {@link SpatialHash},
+     * so this layer is excluded from the engine's collision pass.
+     */
+    public static final int FRUIT_LAYER = Layer.DEFAULT - 1;
+    private static final int DEADLINE_CHECK_INTERVAL = 16;
     private final int chunkId;
     private final GameObjectCollection gameObjects;
-    List <GameObject> chunkObjects = new ArrayList<>();
+    private final LeafSway leafSway;
+    private final SpatialHash staticIndex;
+    private final Terrain terrain;
+    private final Flora flora;
+    private final ChunkData data;
+    private final long dataBytes;
+    private GameObject[] objects = null;
+    private int[] objectLayers = null;
+    private LeafSway.Group leaves = null;
+    private List<Block> groundBlocks = null;
+    private List<Tree> trees = null;
+    private int attachedPrefix = 0;
+    private int attachedSuffixStart = 0;
+    private boolean attachTarget = false;
+    private boolean swaying = false;
 
     /**
-     * Constructs a Chunk instance with specified game objects.
+     * Constructs a Chunk instance from its data description, without materializing its game objects.
+     * Safe to call from the chunk generator's worker threads.
      *
-     * @param gameObjects  The global game object collection managing all game objects.
-     * @param groundBlocks The ground blocks that belong to this chunk.
-     * @param flora        The trees (and their components) present in this chunk.
-     * @param chunkId      The unique identifier of this chunk.
+     * @param gameObjects The global game object collection managing all game objects.
+     * @param leafSway    The animation clock that sways the leaves of loaded chunks.
+     * @param staticIndex The index of the static objects of loaded chunks that the avatar collides with.
+     * @param terrain     The terrain that builds the chunk's ground blocks.
+     * @param flora       The flora that builds the chunk's trees.
+     * @param data        The data description of the chunk's ground and trees.
      */
-    public Chunk(GameObjectCollection gameObjects, List<Block> groundBlocks, List<Tree> flora, int chunkId) {
+    public Chunk(GameObjectCollection gameObjects, LeafSway leafSway, SpatialHash staticIndex,
+                 Terrain terrain, Flora flora, ChunkData data) {
 
-        this.chunkId = chunkId;
+        this.chunkId = data.getChunkId();
         this.gameObjects = gameObjects;
-        for (Tree tree : flora) {
-            List<Block> trunks = tree.getTrunkBlocks();
+        this.leafSway = leafSway;
+        this.staticIndex = staticIndex;
+        this.terrain = terrain;
+        this.flora = flora;
+        this.data = data;
+        this.dataBytes = data.estimatedHeapBytes();
+    }
+
+    /**
+     * Builds the chunk's game objects from its data, if they are not built yet, and sorts them by x-coordinate.
+     * Ground blocks, trunks, leaves and fruits each get their own layer.
+     * Called when the chunk starts being attached; may also be called ahead of time.
+     */
+    public void materialize() {
+        if (objects != null)
+            return;
+        long start = System.nanoTime();
+        long startAllocation = Metrics.allocatedBytes();
+        groundBlocks = terrain.createBlocks(data.getColumns());
+        trees = flora.createFromData(data.getTrees());
+        int leafCount = 0;
+        for (Tree tree : trees) {
+            leafCount += tree.getLeafBlocks().size();
+        }
+        List<GameObject> allObjects = new ArrayList<>(groundBlocks);
+        List<Integer> allLayers = new ArrayList<>();
+        for (int i = 0; i < groundBlocks.size(); i++) {
+            allLayers.add(GROUND_LAYER);
+        }
+        List<Block> leafBlocks = new ArrayList<>(leafCount);
+        float[] leafPhaseOffsets = new float[leafCount];
+        for (Tree tree : trees) {
             List<Block> leafs = tree.getLeafBlocks();
-            List<Fruit> fruits = tree.getFruits();
+            addAll(allObjects, allLayers, tree.getTrunkBlocks(), Layer.STATIC_OBJECTS);
+            addAll(allObjects, allLayers, leafs, LEAF_LAYER);
+            addAll(allObjects, allLayers, tree.getFruits(), FRUIT_LAYER);
+
+            System.arraycopy(tree.getLeafPhaseOffsets(), 0, leafPhaseOffsets, leafBlocks.size(), leafs.size());
+            leafBlocks.addAll(leafs);
+        }
+        leaves = new LeafSway.Group(leafBlocks, leafPhaseOffsets);
 
-            chunkObjects.addAll(trunks);
-            chunkObjects.addAll(leafs);
-            chunkObjects.addAll(fruits);
+        Integer[] order = new Integer[allObjects.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> allObjects.get(i).getTopLeftCorner().x()));
+        objects = new GameObject[order.length];
+        objectLayers = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            objects[i] = allObjects.get(order[i]);
+            objectLayers[i] = allLayers.get(order[i]);
         }
+        attachedPrefix = 0;
+        attachedSuffixStart = objects.length;
+        Metrics.recordMaterialize(this, start, startAllocation);
+    }
 
-        chunkObjects.addAll(groundBlocks);
+    /**
+     * Writes the state of the chunk's fruits back to its data, and hands its game objects,
+     * which must all be detached, back to the terrain and flora to be reused.
+     */
+    private void release() {
+        getData();
+        terrain.recycle(groundBlocks);
+        flora.recycle(trees);
+        groundBlocks = null;
+        objects = null;
+        objectLayers = null;
+        leaves = null;
+        trees = null;
+        attachedPrefix = 0;
+        attachedSuffixStart = 0;
+    }
+
+    /**
+     * Appends game objects and their layer to the chunk's object and layer lists.
+     *
+     * @param allObjects  The chunk's objects.
+     * @param allLayers   The layer of every object of the chunk.
+     * @param newObjects  The objects to append.
+     * @param layer       The layer of the appended objects.
+     */
+    private static void addAll(List<GameObject> allObjects, List<Integer> allLayers,
+                               List<? extends GameObject> newObjects, int layer) {
+        allObjects.addAll(newObjects);
+        for (int i = 0; i < newObjects.size(); i++) {
+            allLayers.add(layer);
+        }
     }
 
     /**
-     * Adds all the game objects contained in this chunk to the global game object collection.
-     * Fruits are added to the default layer, while other objects are added to the static objects layer.
+     * Materializes the chunk's game objects and adds them all to the global game object collection,
+     * indexes its trunks and fruits, and starts swaying its leaves.
+     * Ground blocks, trunks, leaves and fruits are each added to their own layer.
      */
     public void loadChunk() {
-        for (GameObject gameObject : chunkObjects) {
-            if (gameObject.getTag().equals("fruit"))
-                gameObjects.addGameObject(gameObject, Layer.DEFAULT);
-            if (gameObject.getTag().equals("leaf"))
-                gameObjects.addGameObject(gameObject, LEAF_LAYER);
-            else
-                gameObjects.addGameObject(gameObject, Layer.STATIC_OBJECTS);
+        setAttachTarget(true);
+        attach(true, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sets whether this chunk should end up attached. A chunk that should, or that still has
+     * attached objects, counts as loaded.
+     *
+     * @param attachTarget true if the chunk is being attached, false if it is being detached.
+     */
+    public void setAttachTarget(boolean attachTarget) {
+        this.attachTarget = attachTarget;
+    }
+
+    /**
+     * Attaches the chunk's remaining objects, until all are attached or the deadline passes.
+     * The objects are materialized first if needed, which is not interrupted by the deadline.
+     * They are attached in x order, starting from one side of the chunk; the chunk's leaves
+     * start swaying once all objects are attached.
+     *
+     * @param fromLeft      true to attach the leftmost remaining objects first, false for the rightmost.
+     * @param deadlineNanos The {@link System#nanoTime()} after which to stop attaching.
+     * @return true if all the chunk's objects are attached.
+     */
+    public boolean attach(boolean fromLeft, long deadlineNanos) {
+        materialize();
+        int count = 0;
+        while (attachedPrefix < attachedSuffixStart) {
+            if (count++ % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos)
+                return false;
+            int i = fromLeft ? attachedPrefix++ : --attachedSuffixStart;
+            gameObjects.addGameObject(objects[i], objectLayers[i]);
+            Metrics.addLayerObjects(objectLayers[i], 1);
+            if (isCollidable(i))
+                staticIndex.add(objects[i]);
+        }
+        if (!swaying) {
+            leafSway.add(leaves);
+            swaying = true;
+        }
+        return true;
+    }
+
+    /**
+     * Detaches the chunk's remaining attached objects, until all are detached or the deadline passes.
+     * The chunk's leaves stop swaying when its first object is detached, so a chunk whose detaching
+     * is cancelled before any object was detached keeps swaying. Its game objects are released once all
+     * are detached.
+     *
+     * @param deadlineNanos The {@link System#nanoTime()} after which to stop detaching.
+     * @return true if none of the chunk's objects are attached.
+     */
+    public boolean detach(long deadlineNanos) {
+        if (objects == null)
+            return true;
+        int count = 0;
+        while (attachedPrefix > 0 || attachedSuffixStart < objects.length) {
+            if (count++ % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos)
+                return false;
+            stopSwaying();
+            int i = attachedPrefix > 0 ? --attachedPrefix : attachedSuffixStart++;
+            gameObjects.removeGameObject(objects[i], objectLayers[i]);
+            Metrics.addLayerObjects(objectLayers[i], -1);
+            if (isCollidable(i))
+                staticIndex.remove(objects[i]);
+        }
+        stopSwaying();
+        release();
+        return true;
+    }
+
+    /**
+     * Stops swaying the chunk's leaves, if they are swaying.
+     */
+    private void stopSwaying() {
+        if (swaying) {
+            leafSway.remove(leaves);
+            swaying = false;
         }
     }
 
+    /**
+     * Returns whether an object is one the avatar collides with, and so belongs in the static index.
+     *
+     * @param i The object's position in the chunk's sorted objects.
+     * @return true for trunks and fruits.
+     */
+    private boolean isCollidable(int i) {
+        return objectLayers[i] == Layer.STATIC_OBJECTS || objectLayers[i] == FRUIT_LAYER;
+    }
 
     /**
      * Returns the unique identifier of this chunk.
@@ -70,18 +278,82 @@ public class Chunk {
     }
 
     /**
-     * Removes all the game objects of this chunk from the global game object collection.
-     * Fruits are removed from the default layer,
-     * while other objects are removed from the static objects layer.
+     * Returns the chunk's data description, updated with the current state of its fruits
+     * if its game objects are materialized. Must be called from the game thread.
+     *
+     * @return The chunk's {@link ChunkData}.
      */
-    public void unloadChunk() {
-        for (GameObject gameObject : chunkObjects) {
-            if (gameObject.getTag().equals("fruit"))
-                gameObjects.removeGameObject(gameObject, Layer.DEFAULT);
-            if (gameObject.getTag().equals("leaf"))
-                gameObjects.removeGameObject(gameObject, LEAF_LAYER);
-            else
-                gameObjects.removeGameObject(gameObject, Layer.STATIC_OBJECTS);
+    public ChunkData getData() {
+        if (trees != null) {
+            for (Tree tree : trees) {
+                tree.getData();
+            }
         }
+        return data;
+    }
+
+    /**
+     * Returns whether this chunk is attached, being attached, or still has objects being detached.
+     * A loaded chunk must be kept in memory.
+     *
+     * @return true if the chunk is loaded.
+     */
+    public boolean isLoaded() {
+        return attachTarget || attachedPrefix > 0 || attachedSuffixStart < getObjectCount();
+    }
+
+    /**
+     * Returns whether all this chunk's game objects are in the global game object collection.
+     *
+     * @return true if the chunk is fully attached.
+     */
+    public boolean isFullyAttached() {
+        return objects != null && attachedPrefix >= attachedSuffixStart;
+    }
+
+    /**
+     * Returns whether this chunk's game objects are currently built.
+     *
+     * @return true if the chunk is materialized.
+     */
+    public boolean isMaterialized() {
+        return objects != null;
+    }
+
+    /**
+     * Returns the number of game objects in this chunk, in all layers, while they are materialized.
+     *
+     * @return The chunk's object count, or 0 if its game objects are not materialized.
+     */
+    public int getObjectCount() {
+        return objects == null ? 0 : objects.length;
+    }
+
+    /**
+     * Returns the number of this chunk's game objects currently in the global game object collection.
+     *
+     * @return The chunk's attached object count.
+     */
+    public int getAttachedObjectCount() {
+        return objects == null ? 0 : attachedPrefix + objects.length - attachedSuffixStart;
+    }
+
+    /**
+     * Returns an estimate of the memory held by this chunk while it is cached, which is the heap footprint
+     * of its data. Game objects are only held while the chunk is loaded, when it cannot be evicted anyway.
+     *
+     * @return The estimated size of the chunk, in bytes.
+     */
+    public long estimatedBytes() {
+        return dataBytes;
+    }
+
+    /**
+     * Removes all the game objects of this chunk from the global game object collection and from the index,
+     * stops swaying its leaves, and releases its game objects.
+     */
+    public void unloadChunk() {
+        setAttachTarget(false);
+        detach(Long.MAX_VALUE);
     }
 }
@@ -0,0 +1,162 @@
+package pepse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads the attaching and detaching of chunks over several frames, under a time budget per frame.
+ * <p>
+ * Chunks waiting to be attached are attached nearest to the avatar first, each starting from its side
+ * nearest the avatar, and then chunks waiting to be detached are detached, until the frame's budget is
+ * spent. The chunk under the avatar can be attached at once, regardless of the budget, so that the avatar
+ * never stands in a partially attached chunk. Chunks waiting to be detached form the game's queue of deferred
+ * object removals; the objects removed in the last frame, and those still waiting, are counted.
+ * Meant to be used from the game thread only.
+ */
+public class ChunkAttachScheduler {
+
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private final long budgetNanos;
+    private final int chunkLength;
+    private final List<Chunk> attaching = new ArrayList<>();
+    private final List<Chunk> detaching = new ArrayList<>();
+    private int lastRemovals = 0;
+
+    /**
+     * Constructs a ChunkAttachScheduler with nothing to attach or detach.
+     *
+     * @param budgetMicros The time to spend attaching and detaching per frame, in microseconds.
+     * @param chunkLength  The width of a chunk, in pixels.
+     */
+    public ChunkAttachScheduler(long budgetMicros, int chunkLength) {
+        this.budgetNanos = budgetMicros * NANOS_PER_MICRO;
+        this.chunkLength = chunkLength;
+    }
+
+    /**
+     * Schedules a chunk to be attached, cancelling its detaching if it was scheduled.
+     *
+     * @param chunk The chunk to attach.
+     */
+    public void attach(Chunk chunk) {
+        detaching.remove(chunk);
+        chunk.setAttachTarget(true);
+        if (!chunk.isFullyAttached() && !attaching.contains(chunk))
+            attaching.add(chunk);
+    }
+
+    /**
+     * Schedules a chunk to be detached and its game objects released,
+     * cancelling its attaching if it was scheduled.
+     *
+     * @param chunk The chunk to detach.
+     */
+    public void detach(Chunk chunk) {
+        attaching.remove(chunk);
+        chunk.setAttachTarget(false);
+        if ((chunk.isLoaded() || chunk.isMaterialized()) && !detaching.contains(chunk))
+            detaching.add(chunk);
+    }
+
+    /**
+     * Attaches a chunk entirely, right away, regardless of the budget.
+     *
+     * @param chunk The chunk to attach.
+     */
+    public void attachNow(Chunk chunk) {
+        attaching.remove(chunk);
+        detaching.remove(chunk);
+        chunk.loadChunk();
+    }
+
+    /**
+     * Attaches and detaches scheduled chunks until the frame's budget is spent.
+     *
+     * @param avatarX The avatar's x-coordinate.
+     */
+    public void update(float avatarX) {
+        long deadline = System.nanoTime() + budgetNanos;
+        lastRemovals = 0;
+        while (!attaching.isEmpty()) {
+            Chunk nearest = attaching.get(0);
+            for (Chunk chunk : attaching) {
+                if (distance(chunk, avatarX) < distance(nearest, avatarX))
+                    nearest = chunk;
+            }
+            if (!nearest.attach(centerX(nearest) >= avatarX, deadline))
+                return;
+            attaching.remove(nearest);
+        }
+        while (!detaching.isEmpty()) {
+            Chunk chunk = detaching.get(0);
+            int attached = chunk.getAttachedObjectCount();
+            boolean detached = chunk.detach(deadline);
+            lastRemovals += attached - chunk.getAttachedObjectCount();
+            if (!detached)
+                return;
+            detaching.remove(0);
+        }
+    }
+
+    /**
+     * Returns the number of chunks waiting to be fully attached.
+     *
+     * @return The pending attach count.
+     */
+    public int getPendingAttaches() {
+        return attaching.size();
+    }
+
+    /**
+     * Returns the number of chunks waiting to be fully detached.
+     *
+     * @return The pending detach count.
+     */
+    public int getPendingDetaches() {
+        return detaching.size();
+    }
+
+    /**
+     * Returns the number of game objects removed by the last update, that is, in the last frame.
+     *
+     * @return The removal count of the last update.
+     */
+    public int getLastRemovals() {
+        return lastRemovals;
+    }
+
+    /**
+     * Returns the number of game objects of the chunks waiting to be detached, that is, waiting to be removed.
+     *
+     * @return The removal queue depth.
+     */
+    public int getPendingRemovals() {
+        int pending = 0;
+        for (Chunk chunk : detaching) {
+            pending += chunk.getAttachedObjectCount();
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the horizontal distance between a chunk's center and the avatar.
+     *
+     * @param chunk   The chunk.
+     * @param avatarX The avatar's x-coordinate.
+     * @return The distance, in pixels.
+     */
+    private float distance(Chunk chunk, float avatarX) {
+        return Math.abs(centerX(chunk) - avatarX);
+    }
+
+    /**
+     * Returns the x-coordinate of a chunk's center.
+     *
+     * @param chunk The chunk.
+     * @return The center's x-coordinate.
+     */
+    private float centerX(Chunk chunk) {
+        return (chunk.getChunkId() + 0.5f) * chunkLength;
+    }
+}
@@ -0,0 +1,134 @@
+package pepse;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A bounded cache of built chunks, keyed by chunk id and evicted in least-recently-used order.
+ * <p>
+ * The cache is bounded both by a maximal number of chunks and by an estimated memory budget.
+ * Loaded chunks are never evicted, so the cache may temporarily exceed its bounds if every
+ * cached chunk is attached to the game. Evicted chunks are passed to an eviction listener.
+ * The cache is not thread safe and is meant to be used from the game thread only.
+ */
+public class ChunkCache {
+
+    private final int maxChunks;
+    private final long maxBytes;
+    private final Consumer<Chunk> evictionListener;
+    private final LinkedHashMap<Integer, Chunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructs a ChunkCache.
+     *
+     * @param maxChunks        The maximal number of cached chunks.
+     * @param maxBytes         The maximal estimated size of all cached chunks, in bytes.
+     * @param evictionListener Called with every evicted chunk. May be null.
+     */
+    public ChunkCache(int maxChunks, long maxBytes, Consumer<Chunk> evictionListener) {
+        this.maxChunks = maxChunks;
+        this.maxBytes = maxBytes;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Returns the cached chunk with the given id, and marks it as recently used.
+     *
+     * @param chunkId The id of the chunk.
+     * @return The chunk, or null if it is not cached.
+     */
+    public Chunk get(int chunkId) {
+        return chunks.get(chunkId);
+    }
+
+    /**
+     * Returns whether a chunk is cached, without marking it as recently used.
+     *
+     * @param chunkId The id of the chunk.
+     * @return true if the chunk is cached.
+     */
+    public boolean contains(int chunkId) {
+        return chunks.containsKey(chunkId);
+    }
+
+    /**
+     * Adds a chunk to the cache, unless a chunk with the same id is already cached,
+     * then evicts least recently used chunks until the cache is within its bounds.
+     *
+     * @param chunk The chunk to cache.
+     */
+    public void put(Chunk chunk) {
+        if (chunks.putIfAbsent(chunk.getChunkId(), chunk) != null)
+            return;
+        estimatedBytes += chunk.estimatedBytes();
+        evict(chunk);
+    }
+
+    /**
+     * Evicts unloaded chunks, least recently used first, until the cache is within its bounds.
+     *
+     * @param newChunk The chunk that was just added, which is not evicted.
+     */
+    private void evict(Chunk newChunk) {
+        Iterator<Map.Entry<Integer, Chunk>> iterator = chunks.entrySet().iterator();
+        while (isOverBudget() && iterator.hasNext()) {
+            Chunk chunk = iterator.next().getValue();
+            if (chunk == newChunk || chunk.isLoaded())
+                continue;
+            iterator.remove();
+            estimatedBytes -= chunk.estimatedBytes();
+            evictions++;
+            if (evictionListener != null)
+                evictionListener.accept(chunk);
+        }
+    }
+
+    /**
+     * Returns whether the cache exceeds its chunk count or memory budget.
+     *
+     * @return true if chunks should be evicted.
+     */
+    private boolean isOverBudget() {
+        return chunks.size() > maxChunks || estimatedBytes > maxBytes;
+    }
+
+    /**
+     * Performs an action on every cached chunk, without marking them as recently used.
+     *
+     * @param action The action to perform.
+     */
+    public void forEach(Consumer<Chunk> action) {
+        chunks.values().forEach(action);
+    }
+
+    /**
+     * Returns the number of cached chunks.
+     *
+     * @return The cache size.
+     */
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the estimated size of all cached chunks.
+     *
+     * @return The estimated size, in bytes.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Returns the number of chunks evicted so far.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+}
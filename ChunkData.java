@@ -0,0 +1,74 @@
+package pepse;
+
+import pepse.util.HeapSize;
+import pepse.world.TerrainColumns;
+import pepse.world.trees.TreeData;
+import java.util.List;
+
+/**
+ * A compact, data-only description of a chunk: its terrain columns and its trees.
+ * <p>
+ * This is what the chunk store persists. A chunk's game objects can be rebuilt from it without
+ * running the noise or tree generation again.
+ */
+public class ChunkData {
+
+    private final int chunkId;
+    private final TerrainColumns columns;
+    private final List<TreeData> trees;
+
+    /**
+     * Constructs a ChunkData instance.
+     *
+     * @param chunkId The unique identifier of the chunk.
+     * @param columns The chunk's terrain columns.
+     * @param trees   The chunk's trees.
+     */
+    public ChunkData(int chunkId, TerrainColumns columns, List<TreeData> trees) {
+        this.chunkId = chunkId;
+        this.columns = columns;
+        this.trees = trees;
+    }
+
+    /**
+     * Returns the unique identifier of the chunk.
+     *
+     * @return The chunk's ID.
+     */
+    public int getChunkId() {
+        return chunkId;
+    }
+
+    /**
+     * Returns the chunk's terrain columns.
+     *
+     * @return The terrain columns.
+     */
+    public TerrainColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the data descriptions of the chunk's trees.
+     *
+     * @return The chunk's trees.
+     */
+    public List<TreeData> getTrees() {
+        return trees;
+    }
+
+    /**
+     * Returns an estimate of the heap memory held by this description: its columns, its trees,
+     * and the list holding them, assumed to be an array list sized to its trees.
+     *
+     * @return The estimated size, in bytes.
+     */
+    public long estimatedHeapBytes() {
+        long bytes = HeapSize.object(2, Integer.BYTES) + columns.estimatedHeapBytes()
+                + HeapSize.object(1, 2 * Integer.BYTES) + HeapSize.referenceArray(trees.size());
+        for (TreeData tree : trees) {
+            bytes += tree.estimatedHeapBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,167 @@
+package pepse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Builds chunks on a background worker pool, ahead of the avatar.
+ * <p>
+ * The game thread requests chunks by id, and finished chunks are handed back through
+ * {@link #drainCompleted()} so that only the cheap attach step runs inside a frame.
+ * Pending requests are held in a bounded queue, and requests for chunks that are no longer
+ * needed can be cancelled. All public methods are meant to be called from the game thread only.
+ */
+public class ChunkGenerator {
+
+    private static final String WORKER_THREAD_NAME = "chunk-generator-";
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final IntFunction<Chunk> chunkBuilder;
+    private final ThreadPoolExecutor executor;
+    private final Map<Integer, Future<Chunk>> pendingChunks = new HashMap<>();
+    private final Queue<Chunk> completedChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger startedWorkers = new AtomicInteger();
+
+    /**
+     * Constructs a ChunkGenerator.
+     *
+     * @param chunkBuilder  Builds the (unloaded) chunk of a given id. Called on worker threads,
+     *                      so it must not touch the game object collection.
+     * @param workerCount   The number of background worker threads.
+     * @param queueCapacity The maximal number of requests waiting for a free worker.
+     */
+    public ChunkGenerator(IntFunction<Chunk> chunkBuilder, int workerCount, int queueCapacity) {
+        this.chunkBuilder = chunkBuilder;
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount,
+                WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, WORKER_THREAD_NAME + startedWorkers.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Requests a chunk to be built in the background.
+     *
+     * @param chunkId The id of the requested chunk.
+     * @return true if the chunk is now pending, false if the request queue is full.
+     */
+    public boolean request(int chunkId) {
+        if (pendingChunks.containsKey(chunkId))
+            return true;
+        try {
+            Future<Chunk> future = executor.submit(() -> {
+                Chunk chunk = chunkBuilder.apply(chunkId);
+                completedChunks.add(chunk);
+                return chunk;
+            });
+            pendingChunks.put(chunkId, future);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits for a pending chunk to finish building and hands it back.
+     * Used when the avatar reaches a chunk before its background build is done.
+     * If the build has not started yet, it is taken out of the queue and run right away on the calling
+     * thread, rather than after the requests queued before it.
+     *
+     * @param chunkId The id of the chunk.
+     * @return The built chunk, or null if the chunk is not pending or its build failed.
+     */
+    public Chunk await(int chunkId) {
+        Future<Chunk> future = pendingChunks.remove(chunkId);
+        if (future == null)
+            return null;
+        if (executor.remove((Runnable) future)) {
+            future.cancel(false);
+            return chunkBuilder.apply(chunkId);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cancels all pending requests for chunks outside the given range.
+     * Requests that did not start yet are dropped from the queue.
+     *
+     * @param minChunkId The smallest chunk id still needed (inclusive).
+     * @param maxChunkId The largest chunk id still needed (inclusive).
+     */
+    public void cancelOutside(int minChunkId, int maxChunkId) {
+        Iterator<Map.Entry<Integer, Future<Chunk>>> iterator = pendingChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Future<Chunk>> entry = iterator.next();
+            int chunkId = entry.getKey();
+            if (chunkId < minChunkId || chunkId > maxChunkId) {
+                entry.getValue().cancel(false);
+                executor.remove((Runnable) entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Hands back all the chunks that finished building since the last call.
+     * Chunks that were cancelled or already handed back through {@link #await(int)} are dropped.
+     *
+     * @return The newly built, unloaded chunks.
+     */
+    public List<Chunk> drainCompleted() {
+        List<Chunk> chunks = new ArrayList<>();
+        Chunk chunk;
+        while ((chunk = completedChunks.poll()) != null) {
+            if (pendingChunks.remove(chunk.getChunkId()) != null)
+                chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Stops the worker pool, discarding all pending requests, and waits for the builds already
+     * running to finish, so that nothing reads the chunk store once this returns.
+     * Workers are not interrupted, since an interrupt would close the store's file channels.
+     *
+     * @return true if all workers stopped, false if some were still running after the timeout.
+     */
+    public boolean shutdown() {
+        for (Future<Chunk> future : pendingChunks.values()) {
+            future.cancel(false);
+        }
+        executor.shutdown();
+        pendingChunks.clear();
+        completedChunks.clear();
+        try {
+            return executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package pepse;
+
+/**
+ * Decides which chunks should be attached to the game and which should be generated ahead of time.
+ * <p>
+ * Chunks within the attach radius of the avatar's chunk are loaded into the game. Beyond them,
+ * chunks are prefetched in the avatar's direction of movement: a fixed number of chunks ahead,
+ * plus however many chunks the avatar would cross within the lookahead time at its current speed.
+ * The prefetcher also counts how often an attached chunk was ready in time (a hit) or had to be
+ * waited for or built on the game thread (a miss).
+ */
+public class ChunkPrefetcher {
+
+    private final int chunkLength;
+    private final int attachRadius;
+    private final int prefetchAhead;
+    private final int prefetchBehind;
+    private final float lookaheadSeconds;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructs a ChunkPrefetcher.
+     *
+     * @param chunkLength      The width of a chunk, in pixels.
+     * @param attachRadius     The number of chunks on each side of the avatar's chunk that are loaded.
+     * @param prefetchAhead    The number of chunks beyond the attached ones that are always generated
+     *                         in the direction of movement.
+     * @param prefetchBehind   The number of chunks beyond the attached ones that are kept generated
+     *                         against the direction of movement.
+     * @param lookaheadSeconds How far ahead in time, at the avatar's current speed, chunks are generated.
+     */
+    public ChunkPrefetcher(int chunkLength, int attachRadius, int prefetchAhead,
+                           int prefetchBehind, float lookaheadSeconds) {
+        this.chunkLength = chunkLength;
+        this.attachRadius = attachRadius;
+        this.prefetchAhead = prefetchAhead;
+        this.prefetchBehind = prefetchBehind;
+        this.lookaheadSeconds = lookaheadSeconds;
+    }
+
+    /**
+     * Returns the number of chunks on each side of the avatar's chunk that are loaded.
+     *
+     * @return The attach radius.
+     */
+    public int getAttachRadius() {
+        return attachRadius;
+    }
+
+    /**
+     * Returns the smallest chunk id that should be generated.
+     *
+     * @param currentChunkId The chunk ID where the avatar currently is.
+     * @param velocityX      The avatar's horizontal velocity.
+     * @return The smallest chunk id to prefetch (inclusive).
+     */
+    public int minPrefetchChunk(int currentChunkId, float velocityX) {
+        int distance = velocityX < 0 ? aheadDistance(velocityX) : behindDistance(velocityX);
+        return currentChunkId - attachRadius - distance;
+    }
+
+    /**
+     * Returns the largest chunk id that should be generated.
+     *
+     * @param currentChunkId The chunk ID where the avatar currently is.
+     * @param velocityX      The avatar's horizontal velocity.
+     * @return The largest chunk id to prefetch (inclusive).
+     */
+    public int maxPrefetchChunk(int currentChunkId, float velocityX) {
+        int distance = velocityX > 0 ? aheadDistance(velocityX) : behindDistance(velocityX);
+        return currentChunkId + attachRadius + distance;
+    }
+
+    /**
+     * Returns the number of chunks to prefetch in the direction of movement.
+     *
+     * @param velocityX The avatar's horizontal velocity.
+     * @return The number of chunks beyond the attached ones.
+     */
+    private int aheadDistance(float velocityX) {
+        return prefetchAhead + (int) Math.ceil(Math.abs(velocityX) * lookaheadSeconds / chunkLength);
+    }
+
+    /**
+     * Returns the number of chunks to prefetch against the direction of movement.
+     * When the avatar stands still both sides are treated as ahead.
+     *
+     * @param velocityX The avatar's horizontal velocity.
+     * @return The number of chunks beyond the attached ones.
+     */
+    private int behindDistance(float velocityX) {
+        return velocityX == 0 ? prefetchAhead : prefetchBehind;
+    }
+
+    /**
+     * Records that a chunk was already generated when it had to be attached.
+     */
+    public void recordHit() {
+        hits++;
+    }
+
+    /**
+     * Records that a chunk had to be waited for or generated on the game thread when it had to be attached.
+     */
+    public void recordMiss() {
+        misses++;
+    }
+
+    /**
+     * Returns the number of prefetch hits so far.
+     *
+     * @return The hit count.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of prefetch misses so far.
+     *
+     * @return The miss count.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package pepse;
+
+import danogl.GameObject;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+import pepse.metrics.Metrics;
+
+/**
+ * A display GameObject that shows live frame-time percentiles, the number of loaded chunks,
+ * the chunk prefetch hit rate, the broadphase candidate pairs out of the indexed static objects,
+ * and the game objects removed in the last frame and still waiting to be removed.
+ * The text is refreshed a few times per second from the rolling windows of {@link Metrics},
+ * so it follows the game's current behavior without costing a sort every frame.
+ */
+public class DebugOverlay extends GameObject {
+
+    /** Text for the debug overlay */
+    public static final String DEBUG_TEXT =
+            "Frame p50 %.1f p99 %.1f max %.1f ms | Update p99 %.2f ms | Chunks %d loaded, %d cached"
+            + " | Prefetch %.0f%% hit, %d missed | Broadphase %d of %d | Removals %d, %d queued";
+    private static final double PERCENT = 100;
+    private static final float REFRESH_INTERVAL = 0.25f;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+    private static final double[] PERCENTILES = {0.5, 0.99, 1};
+    private final TextRenderable textRenderable;
+    private final long[] framePercentiles = new long[PERCENTILES.length];
+    private final long[] updatePercentiles = new long[PERCENTILES.length];
+    private float sinceRefresh = REFRESH_INTERVAL;
+
+    /**
+     * Constructs a new DebugOverlay object.
+     *
+     * @param topLeftCorner Position of the object in window coordinates (pixels).
+     *                      (0,0) corresponds to the top-left corner of the window.
+     * @param dimensions    Width and height in window coordinates.
+     * @param renderable    The TextRenderable that displays the statistics.
+     */
+    public DebugOverlay(Vector2 topLeftCorner, Vector2 dimensions, TextRenderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
+        textRenderable = renderable;
+    }
+
+    /**
+     * Called once per frame to refresh the displayed statistics, if the refresh interval has passed.
+     *
+     * @param deltaTime Time elapsed since last frame in seconds.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+
+        sinceRefresh += deltaTime;
+        if (sinceRefresh < REFRESH_INTERVAL)
+            return;
+        sinceRefresh = 0;
+        Metrics.getFrameTimes().percentiles(PERCENTILES, framePercentiles);
+        Metrics.getUpdateTimes().percentiles(PERCENTILES, updatePercentiles);
+        textRenderable.setString(String.format(DEBUG_TEXT,
+                framePercentiles[0] / NANOS_PER_MILLISECOND,
+                framePercentiles[1] / NANOS_PER_MILLISECOND,
+                framePercentiles[2] / NANOS_PER_MILLISECOND,
+                updatePercentiles[1] / NANOS_PER_MILLISECOND,
+                Metrics.getLoadedChunks(),
+                Metrics.getCachedChunks(),
+                Metrics.getPrefetchHitRate() * PERCENT,
+                Metrics.getPrefetchMisses(),
+                Metrics.getCandidatePairs(),
+                Metrics.getIndexedObjects(),
+                Metrics.getRemovals(),
+                Metrics.getRemovalQueueDepth()));
+    }
+}
@@ -0,0 +1,238 @@
+package pepse;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+import pepse.metrics.Histogram;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the world without a window, to soak-test it and measure its throughput.
+ * <p>
+ * The game manager is initialized and updated exactly as the engine does, but with a window controller
+ * that only reports the window dimensions, a scripted input source in place of the user, and no images,
+ * so that chunk streaming, avatar movement, rain, fruit regrowth and day/night all run without rendering.
+ * Ticks use either a fixed timestep, and run as fast as possible, or the wall-clock time elapsed since
+ * the previous tick. At the end, ticks per second, tick time percentiles and heap use are reported.
+ * The world is saved to a temporary directory, deleted at the end, so the player's save is never touched.
+ * <p>
+ * Usage: {@code HeadlessSimulation [ticks] [timestep]}, where a timestep of 0 uses the wall-clock time.
+ */
+public class HeadlessSimulation {
+
+    private static final int DEFAULT_TICKS = 36000;
+    private static final float DEFAULT_TIMESTEP = 1f / 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final float NANOS_PER_SECOND = 1e9f;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String SAVE_DIRECTORY_PREFIX = "pepse-headless-";
+    private static final float SCRIPT_PERIOD = 30;
+    private static final float RIGHT_SECONDS = 20;
+    private static final float STRIDE_PERIOD = 4;
+    private static final float STRIDE_SECONDS = 2;
+    private static final float JUMP_INTERVAL = 1;
+    private static final float JUMP_SECONDS = 0.1f;
+
+    private final Path saveDirectory;
+    private final PepseGameManager gameManager;
+    private final ScriptedInput input;
+    private final float timestep;
+    private final long[] tickNanos;
+
+    /**
+     * Constructs a headless simulation of a new world.
+     *
+     * @param input    The scripted input that controls the avatar.
+     * @param ticks    The number of ticks to run.
+     * @param timestep The fixed timestep in seconds, or 0 to use the wall-clock time between ticks.
+     * @throws IOException If the temporary save directory cannot be created.
+     */
+    public HeadlessSimulation(ScriptedInput input, int ticks, float timestep) throws IOException {
+        this.saveDirectory = Files.createTempDirectory(SAVE_DIRECTORY_PREFIX);
+        this.gameManager = new PepseGameManager(saveDirectory);
+        this.input = input;
+        this.timestep = timestep;
+        this.tickNanos = new long[ticks];
+    }
+
+    /**
+     * Initializes the world and runs all the ticks, then closes the world and deletes its temporary save.
+     *
+     * @throws IOException If the temporary save cannot be deleted.
+     */
+    public void run() throws IOException {
+        try {
+            gameManager.initializeGame(null, null,
+                    stub(UserInputListener.class, input), stub(WindowController.class, this));
+            long previousTick = System.nanoTime();
+            for (int i = 0; i < tickNanos.length; i++) {
+                long tickStart = System.nanoTime();
+                float deltaTime = timestep > 0 ? timestep : (tickStart - previousTick) / NANOS_PER_SECOND;
+                previousTick = tickStart;
+                input.advance(deltaTime);
+                gameManager.update(deltaTime);
+                tickNanos[i] = System.nanoTime() - tickStart;
+            }
+        } finally {
+            gameManager.closeWorld();
+            deleteSave();
+        }
+    }
+
+    /**
+     * Deletes the temporary save directory and everything in it.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    private void deleteSave() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(saveDirectory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Returns the window dimensions the world is simulated for.
+     * Answers the window controller's {@code getWindowDimensions}.
+     *
+     * @return The simulated window dimensions.
+     */
+    public Vector2 getWindowDimensions() {
+        return WINDOW_DIMENSIONS;
+    }
+
+    /**
+     * Prints ticks per second, tick time percentiles, subsystem time percentiles,
+     * prefetch hits and misses, broadphase candidate pairs, deferred removals,
+     * allocations per chunk build and materialization, and heap use.
+     */
+    public void report() {
+        long totalNanos = 0;
+        for (long nanos : tickNanos) {
+            totalNanos += nanos;
+        }
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("ticks: %d, ticks per second: %.1f%n",
+                sorted.length, sorted.length * NANOS_PER_SECOND / Math.max(1, totalNanos));
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+            System.out.printf("tick time p%s: %.3f ms%n", percentile * 100, sorted[Math.max(0, index)] / 1e6);
+        }
+        System.out.printf("tick time max: %.3f ms%n", sorted[sorted.length - 1] / 1e6);
+        for (Subsystem subsystem : Subsystem.values()) {
+            Histogram latency = Metrics.getLatency(subsystem);
+            if (latency.getCount() > 0)
+                System.out.printf("%s: %d runs, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", subsystem.getLabel(),
+                        latency.getCount(), latency.getPercentile(0.5) / 1e6,
+                        latency.getPercentile(0.99) / 1e6, latency.getMax() / 1e6);
+        }
+        System.out.printf("prefetch: %d hits, %d misses, hit rate %.1f%%%n", Metrics.getPrefetchHits(),
+                Metrics.getPrefetchMisses(), Metrics.getPrefetchHitRate() * 100);
+        System.out.printf("broadphase: %.1f candidate pairs per frame, max %d, of %d indexed objects%n",
+                Metrics.getMeanCandidatePairs(), Metrics.getMaxCandidatePairs(), Metrics.getIndexedObjects());
+        System.out.printf("removals: %d objects, max %d per frame, max %d queued%n",
+                Metrics.getTotalRemovals(), Metrics.getMaxRemovals(), Metrics.getMaxRemovalQueueDepth());
+        Histogram allocations = Metrics.getChunkAllocations();
+        if (allocations.getCount() > 0)
+            System.out.printf("allocated per chunk build: mean %d KB, max %d KB%n",
+                    (long) allocations.getMean() / 1024, allocations.getMax() / 1024);
+        Histogram materializeAllocations = Metrics.getMaterializeAllocations();
+        if (materializeAllocations.getCount() > 0)
+            System.out.printf("allocated per chunk materialize: mean %d KB, max %d KB%n",
+                    (long) materializeAllocations.getMean() / 1024, materializeAllocations.getMax() / 1024);
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("heap used: %d MB of %d MB%n",
+                (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MEGABYTE,
+                runtime.maxMemory() / BYTES_PER_MEGABYTE);
+    }
+
+    /**
+     * Implements an engine interface by forwarding its calls to the same-named public methods of a target,
+     * answering every other call with null, false or zero.
+     *
+     * @param type   The interface to implement.
+     * @param target The object handling the calls it has methods for.
+     * @param <T>    The interface type.
+     * @return The interface implementation.
+     */
+    private static <T> T stub(Class<T> type, Object target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    try {
+                        return target.getClass().getMethod(method.getName(), method.getParameterTypes())
+                                .invoke(target, args);
+                    } catch (NoSuchMethodException e) {
+                        return defaultValue(method.getReturnType());
+                    }
+                }));
+    }
+
+    /**
+     * Returns the default value of a type, as an unset field of that type would hold.
+     *
+     * @param type The type.
+     * @return null for reference types, false or zero for primitive types.
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class)
+            return null;
+        return Array.get(Array.newInstance(type, 1), 0);
+    }
+
+    /**
+     * Returns the default script: strides of running and jumping, each followed by a rest as long,
+     * to the right for two thirds of every period and back to the left for the rest.
+     * Running and jumping spend the avatar's energy, which only comes back while it stands still,
+     * so the rests let the avatar keep crossing chunks for the whole run instead of running out of
+     * energy at the first step it cannot climb.
+     *
+     * @return The default scripted input.
+     */
+    private static ScriptedInput defaultScript() {
+        ScriptedInput input = new ScriptedInput();
+        for (float start = 0; start < SCRIPT_PERIOD; start += STRIDE_PERIOD) {
+            int key = start < RIGHT_SECONDS ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+            input.hold(key, SCRIPT_PERIOD, start, Math.min(start + STRIDE_SECONDS, SCRIPT_PERIOD));
+        }
+        for (float jump = 0; jump < STRIDE_SECONDS; jump += JUMP_INTERVAL) {
+            input.hold(KeyEvent.VK_SPACE, STRIDE_PERIOD, jump, jump + JUMP_SECONDS);
+        }
+        return input;
+    }
+
+    /**
+     * Runs a headless simulation of an avatar running and jumping in strides, mostly to the right,
+     * turning back now and then.
+     *
+     * @param args The number of ticks and the timestep in seconds, both optional.
+     */
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        float timestep = args.length > 1 ? Float.parseFloat(args[1]) : DEFAULT_TIMESTEP;
+        try {
+            HeadlessSimulation simulation = new HeadlessSimulation(defaultScript(), ticks, timestep);
+            simulation.run();
+            simulation.report();
+        } catch (IOException e) {
+            System.err.println("simulation failed: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
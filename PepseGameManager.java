@@ -11,15 +11,22 @@ import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
+import pepse.persistence.ChunkStore;
+import pepse.util.TimerWheel;
 import pepse.world.*;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Flora;
-import pepse.world.trees.Tree;
-import java.util.HashMap;
+import pepse.world.trees.LeafSway;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -32,22 +39,69 @@ public class PepseGameManager extends GameManager {
     /** length of the game's cycle */
     public static final float NIGHT_CYCLE_LENGTH = 30f;
     private static final int RAIN_LAYER = -197;
+    private static final int MAX_RAIN_DROPS = 512;
     private static final int CLOUD_LAYER = -196;
     private static final int HALO_LAYER = -199;
-    private static final int INITIAL_CHUNK_RADIUS = 1;
-
-    /**A tag for GameObjects that need to be removed in the next update iteration. */
-    public static final String OBJECT_REMOVE_TAG = "toRemove";
+    private static final int CHUNK_COLUMNS = 32;
+    /** The width of a chunk, in pixels. */
+    static final int CHUNK_LENGTH = CHUNK_COLUMNS * Block.SIZE;
+    private static final Vector2 TERRAIN_REFERENCE_DIMENSIONS = new Vector2(CHUNK_LENGTH, 720);
+    private static final int MIN_ATTACH_RADIUS = 1;
+    private static final int PREFETCH_AHEAD = 1;
+    private static final int PREFETCH_BEHIND = 0;
+    private static final float PREFETCH_LOOKAHEAD_SECONDS = 2f;
+    private static final long ATTACH_BUDGET_MICROS = 2000;
+    private static final int GENERATOR_WORKERS =
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int GENERATOR_QUEUE_CAPACITY = 8;
+    private static final int MAX_CACHED_CHUNKS = 256;
+    private static final long MAX_CACHED_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_CACHED_HEIGHT_CHUNKS = 2 * MAX_CACHED_CHUNKS;
+    private static final int WORLD_SEED = 0;
+    private static final String SAVE_DIRECTORY_FORMAT = "saves/world-%d-%d";
+    private static final double REGROWTH_TICK_SECONDS = 0.1;
+    private static final int REGROWTH_WHEEL_SLOTS = 512;
+    private static final String DEBUG_OVERLAY_PROPERTY = "pepse.debugOverlay";
 
     private  WindowController windowController;
     private  Terrain terrain;
+    private  HeightMap heightMap;
+    private  HeightfieldCollider heightfieldCollider;
     private  Flora flora;
+    private  TimerWheel regrowth;
 
     private Cloud cloud;
-    private final Map<Integer, Chunk> chunkMap = new HashMap<>();
-    private int chunkLength;
+    private final ChunkCache chunkCache = new ChunkCache(MAX_CACHED_CHUNKS, MAX_CACHED_BYTES, this::evictChunk);
+    private ChunkStore chunkStore;
+    private final LeafSway leafSway = new LeafSway();
+    private final SpatialHash staticIndex = new SpatialHash(Block.SIZE);
+    private final StaticObjectCollider staticObjectCollider = new StaticObjectCollider(staticIndex);
+    private final Set<Integer> attachedChunkIds = new HashSet<>();
     private Avatar avatar;
     private int currentChunkId;
+    private ChunkGenerator chunkGenerator;
+    private ChunkPrefetcher chunkPrefetcher;
+    private ChunkAttachScheduler chunkAttachScheduler;
+    private final Object worldLock = new Object();
+    private boolean worldClosed = false;
+    private final Path storeDirectory;
+
+    /**
+     * Constructs a game manager that saves the world to its default save directory.
+     */
+    public PepseGameManager() {
+        this(saveDirectory());
+    }
+
+    /**
+     * Constructs a game manager that saves the world to the given directory,
+     * for example a temporary one that leaves the player's save untouched.
+     *
+     * @param storeDirectory The directory of the world's chunk store.
+     */
+    PepseGameManager(Path storeDirectory) {
+        this.storeDirectory = storeDirectory;
+    }
 
     /**
      * Initializes the game, including terrain, flora, avatar, weather, UI, and initial chunks.
@@ -65,62 +119,311 @@ public class PepseGameManager extends GameManager {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
 
         this.windowController = windowController;
-        this.chunkLength = (int) windowController.getWindowDimensions().x();
-        this.currentChunkId = 0;
-        terrain = new Terrain(windowController.getWindowDimensions(), 0);
-        flora = new Flora(terrain);
+        terrain = createTerrain();
+        heightMap = new HeightMap(terrain, CHUNK_LENGTH, MAX_CACHED_HEIGHT_CHUNKS);
+        initializeChunkStore();
+        regrowth = new TimerWheel(loadWorldTime(), REGROWTH_TICK_SECONDS, REGROWTH_WHEEL_SLOTS);
+        flora = new Flora(terrain, heightMap, regrowth);
+        initializeCollisions();
 
         initializeAvatar(inputListener, imageReader);
+        this.currentChunkId = currentAvatarChunk();
         initializeWeather(windowController, avatar);
         initializeUI();
 
+        chunkGenerator = new ChunkGenerator(this::buildChunk, GENERATOR_WORKERS, GENERATOR_QUEUE_CAPACITY);
+        chunkPrefetcher = new ChunkPrefetcher(CHUNK_LENGTH, attachRadius(windowController), PREFETCH_AHEAD,
+                PREFETCH_BEHIND, PREFETCH_LOOKAHEAD_SECONDS);
+        chunkAttachScheduler = new ChunkAttachScheduler(ATTACH_BUDGET_MICROS, CHUNK_LENGTH);
         initializeStarterChunks();
     }
 
 
     /**
-     * Loads the initial chunks surrounding the starting chunk.
+     * Resolves ground collisions against the height map instead of the ground blocks,
+     * and the avatar's collisions with trunks and fruits through the static object index.
+     * Excludes all of these, and the leaves, from the engine's collision pass.
      */
-    private void initializeStarterChunks(){
-        for (int i=-1; i <= INITIAL_CHUNK_RADIUS; i++){
-            Chunk chunk = initializeChunk(i * chunkLength, i);
-            chunkMap.put(chunk.getChunkId(), chunk);
+    private void initializeCollisions(){
+        heightfieldCollider = new HeightfieldCollider(heightMap);
+        for (int layer : new int[]{Chunk.GROUND_LAYER, Chunk.LEAF_LAYER, Chunk.FRUIT_LAYER, Layer.STATIC_OBJECTS}) {
+            gameObjects().layers().shouldLayersCollide(layer, layer, false);
+            gameObjects().layers().shouldLayersCollide(layer, Layer.DEFAULT, false);
+        }
+    }
+
+    /**
+     * Returns the number of chunks to keep attached on each side of the avatar's chunk,
+     * so that the attached chunks always cover the camera's view, wherever the avatar is in its chunk.
+     *
+     * @param windowController Used for the camera's width, which is the window's width.
+     * @return The attach radius, in chunks.
+     */
+    private static int attachRadius(WindowController windowController){
+        float cameraWidth = windowController.getWindowDimensions().x();
+        return Math.max(MIN_ATTACH_RADIUS, (int) Math.ceil(cameraWidth / (2f * CHUNK_LENGTH)));
+    }
+
+    /**
+     * Opens the chunk store of this world. A world pre-generated by {@link WorldPregenerator} is loaded
+     * from the store. The world is closed by {@link #closeWorld()} when the game loop returns, or by a
+     * shutdown hook if the process exits first.
+     * If the store cannot be opened, the game runs without persistence.
+     */
+    private void initializeChunkStore(){
+        try {
+            chunkStore = new ChunkStore(storeDirectory);
+        } catch (IOException e) {
+            chunkStore = null;
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeWorld));
+    }
+
+    /**
+     * Stops the chunk generator, waiting for the builds already running, then saves all cached chunks
+     * and the world time to the chunk store, and closes it. Later calls, and later frames, do nothing.
+     * <p>
+     * Runs under the same lock as {@link #update(float)}, so when called from a shutdown hook it waits
+     * for the current frame to end, and the game loop, even if still running, no longer touches the world.
+     */
+    public void closeWorld(){
+        synchronized (worldLock) {
+            if (worldClosed)
+                return;
+            worldClosed = true;
+            if (chunkGenerator != null)
+                chunkGenerator.shutdown();
+            if (chunkStore == null)
+                return;
+            chunkCache.forEach(this::saveChunk);
+            try {
+                chunkStore.saveWorldTime(regrowth.now());
+                chunkStore.close();
+            } catch (IOException ignored) {
+                // Chunks that failed to save will be regenerated next time.
+            }
+        }
+    }
+
+    /**
+     * Creates the world's terrain, as every chunk of the world is generated from.
+     *
+     * @return A new terrain of the world seed.
+     */
+    static Terrain createTerrain(){
+        return new Terrain(TERRAIN_REFERENCE_DIMENSIONS, WORLD_SEED, Terrain.ColliderMode.MERGED_COLUMNS);
+    }
+
+    /**
+     * Returns the directory of the world's chunk store.
+     * Chunks are stored per seed and chunk length, since both determine a chunk's content.
+     *
+     * @return The chunk store's directory, relative to the working directory.
+     */
+    static Path saveDirectory(){
+        return Path.of(String.format(SAVE_DIRECTORY_FORMAT, WORLD_SEED, CHUNK_LENGTH));
+    }
+
+    /**
+     * Returns the world time the chunk store was saved at, so that the fruit regrowth deadlines stored
+     * in its chunks keep their meaning.
+     *
+     * @return The saved world time, in seconds, or 0 for a new world or if there is no chunk store.
+     */
+    private double loadWorldTime(){
+        if (chunkStore == null)
+            return 0;
+        try {
+            return chunkStore.loadWorldTime();
+        } catch (IOException ignored) {
+            // Stored fruits then grow back no sooner than before, but may take longer.
+            return 0;
+        }
+    }
+
+    /**
+     * Saves an evicted chunk to the chunk store, and drops its cached ground heights.
+     * Used as the chunk cache's eviction listener.
+     *
+     * @param chunk The evicted chunk.
+     */
+    private void evictChunk(Chunk chunk){
+        saveChunk(chunk);
+        heightMap.evict(chunk.getChunkId());
+    }
+
+    /**
+     * Saves a chunk's data, including the state of its fruits, to the chunk store.
+     * Generation is deterministic, so a failed save only loses the chunk's fruit state.
+     *
+     * @param chunk The chunk to save.
+     */
+    private void saveChunk(Chunk chunk){
+        if (chunkStore == null)
+            return;
+        try {
+            chunkStore.save(chunk.getData());
+        } catch (IOException ignored) {
+            // The chunk is regenerated from the world seed on its next visit.
+        }
+    }
+
+    /**
+     * Returns the data of a chunk, read back from the chunk store if it was saved before,
+     * or generated from the world seed otherwise. Safe to call from the chunk generator's worker threads.
+     *
+     * @param chunkId The id number of the chunk.
+     * @return The chunk's data.
+     */
+    private ChunkData loadChunkData(int chunkId){
+        if (chunkStore != null){
+            try {
+                ChunkData data = chunkStore.load(chunkId);
+                if (data != null)
+                    return data;
+            } catch (IOException ignored) {
+                // Fall back to generating the chunk, which gives the same content.
+            }
         }
+        return generateChunkData(chunkId, terrain, heightMap, flora);
     }
 
     /**
-     * Creates a new chunk with terrain blocks and trees, and loads it.
+     * Generates the data of a chunk from the world seed. The content depends only on the chunk id and
+     * the seed, so chunks can be generated in any order, on any thread. Safe to call concurrently.
+     *
+     * @param chunkId   The id number of the chunk.
+     * @param terrain   The world's terrain.
+     * @param heightMap The cache of the terrain's ground heights.
+     * @param flora     The flora that describes the chunk's trees.
+     * @return The chunk's data.
+     */
+    static ChunkData generateChunkData(int chunkId, Terrain terrain, HeightMap heightMap, Flora flora){
+        int startX = chunkId * CHUNK_LENGTH;
+        return new ChunkData(chunkId,
+                terrain.generateColumns(heightMap.getFirstColumn(chunkId), heightMap.getChunkHeights(chunkId)),
+                flora.generateInRange(startX, startX + CHUNK_LENGTH));
+    }
+
+    /**
+     * Loads the initial chunks surrounding the starting chunk, and starts prefetching the ones beyond.
+     * The initial chunks are not counted as prefetch misses.
+     */
+    private void initializeStarterChunks(){
+        attachChunks(currentChunkId);
+        chunkPrefetcher.resetCounters();
+        prefetchChunks(currentChunkId, 0);
+    }
+
+    /**
+     * Creates a new chunk from its data, without loading it. The chunk's terrain blocks and trees
+     * are only built when it starts being attached.
+     * Safe to call from the chunk generator's worker threads.
      *
-     * @param startX  The starting x-coordinate of the chunk.
      * @param chunkId The id number of the chunk.
-     * @return The newly created and loaded chunk.
+     * @return The newly created chunk.
      */
-    private Chunk initializeChunk(int startX, int chunkId){
-        List<Block> blocks = terrain.createInRange(startX, startX + chunkLength);
-        List<Tree> trees = flora.createInRange(startX, startX + chunkLength);
-        Chunk chunk = new Chunk(gameObjects(), blocks, trees, chunkId);
-        chunk.loadChunk();
+    private Chunk buildChunk(int chunkId){
+        long start = System.nanoTime();
+        long startAllocation = Metrics.allocatedBytes();
+        Chunk chunk = new Chunk(gameObjects(), leafSway, staticIndex, terrain, flora, loadChunkData(chunkId));
+        Metrics.recordChunkBuild(chunk, start, startAllocation);
         return chunk;
     }
 
     /**
-     * Initializes the player's avatar at the center top of the ground and sets the camera to follow it.
+     * Returns the chunk with the given id, building it if needed.
+     * A chunk already built in the background counts as a prefetch hit. Otherwise its background build
+     * is waited for, or the chunk is built on the spot, and this counts as a prefetch miss.
+     *
+     * @param chunkId The id number of the chunk.
+     * @return The chunk, not necessarily loaded.
+     */
+    private Chunk initializeChunk(int chunkId){
+        long start = System.nanoTime();
+        Chunk chunk = chunkCache.get(chunkId);
+        if (chunk != null){
+            chunkPrefetcher.recordHit();
+        } else {
+            chunkPrefetcher.recordMiss();
+            chunk = chunkGenerator.await(chunkId);
+            if (chunk == null)
+                chunk = buildChunk(chunkId);
+            chunkCache.put(chunk);
+        }
+        Metrics.record(Subsystem.INITIALIZE_CHUNK, start);
+        return chunk;
+    }
+
+    /**
+     * Requests the chunks in the prefetch range to be built in the background,
+     * and cancels requests for chunks that are outside of it.
+     *
+     * @param chunkId   The chunk ID where the avatar currently is.
+     * @param velocityX The avatar's horizontal velocity.
+     */
+    private void prefetchChunks(int chunkId, float velocityX){
+        int minChunkId = chunkPrefetcher.minPrefetchChunk(chunkId, velocityX);
+        int maxChunkId = chunkPrefetcher.maxPrefetchChunk(chunkId, velocityX);
+        chunkGenerator.cancelOutside(minChunkId, maxChunkId);
+        for (int nextChunkId = minChunkId; nextChunkId <= maxChunkId; nextChunkId++){
+            if (!chunkCache.contains(nextChunkId))
+                chunkGenerator.request(nextChunkId);
+        }
+    }
+
+    /**
+     * Schedules all the chunks within the attach radius of the given chunk to be attached,
+     * and the attached chunks outside of it to be detached. The given chunk itself is attached at once.
+     *
+     * @param chunkId The chunk ID where the avatar currently is.
+     */
+    private void attachChunks(int chunkId){
+        int attachRadius = chunkPrefetcher.getAttachRadius();
+        Iterator<Integer> iterator = attachedChunkIds.iterator();
+        while (iterator.hasNext()){
+            int attachedChunkId = iterator.next();
+            if (Math.abs(attachedChunkId - chunkId) > attachRadius){
+                chunkAttachScheduler.detach(chunkCache.get(attachedChunkId));
+                iterator.remove();
+            }
+        }
+        for (int nextChunkId = chunkId - attachRadius; nextChunkId <= chunkId + attachRadius; nextChunkId++){
+            if (attachedChunkIds.add(nextChunkId))
+                chunkAttachScheduler.attach(initializeChunk(nextChunkId));
+        }
+        chunkAttachScheduler.attachNow(chunkCache.get(chunkId));
+    }
+
+    /**
+     * Moves chunks that finished building in the background into the chunk cache, unloaded.
+     */
+    private void collectGeneratedChunks(){
+        for (Chunk chunk : chunkGenerator.drainCompleted()){
+            chunkCache.put(chunk);
+        }
+    }
+
+    /**
+     * Initializes the player's avatar just above the ground at the center, sets the camera to follow it,
+     * and keeps it above the ground.
      *
      * @param inputListener The user input listener to control the avatar.
      * @param imageReader   Used to read avatar images.
      */
     private void initializeAvatar(UserInputListener inputListener, ImageReader imageReader) {
 
-        Vector2 initialAvatarPosition = new Vector2(windowController.getWindowDimensions().x() / 2,
-                terrain.groundHeightAt(windowController.getWindowDimensions().x() / 2) - Block.SIZE);
-
-        avatar = new Avatar(initialAvatarPosition, inputListener, imageReader);
+        float initialAvatarX = windowController.getWindowDimensions().x() / 2;
+        avatar = new Avatar(Vector2.ZERO, inputListener, imageReader);
+        avatar.setTopLeftCorner(new Vector2(initialAvatarX,
+                heightfieldCollider.groundTopAt(initialAvatarX) - Block.SIZE - avatar.getDimensions().y()));
         setCamera(new Camera(avatar,
                 Vector2.ZERO,
                 windowController.getWindowDimensions(),
                 windowController.getWindowDimensions()));
         gameObjects().addGameObject(avatar, Layer.DEFAULT);
-
+        heightfieldCollider.add(avatar);
     }
 
     /**
@@ -129,15 +432,32 @@ public class PepseGameManager extends GameManager {
      * @return The chunk ID based on avatar's x-coordinate.
      */
     private int currentAvatarChunk() {
-        return (int) Math.floor(avatar.getCenter().x() / chunkLength);
+        return (int) Math.floor(avatar.getCenter().x() / CHUNK_LENGTH);
     }
 
     /**
-     * Initializes the UI elements such as the energy bar display.
+     * Initializes the UI elements such as the energy bar display, and the debug overlay
+     * if the {@value #DEBUG_OVERLAY_PROPERTY} system property is set to true.
      */
     private void initializeUI(){
         EnergyBarDisplay energyBar = createEnergyDisplay();
         gameObjects().addGameObject(energyBar, Layer.UI);
+        if (Boolean.getBoolean(DEBUG_OVERLAY_PROPERTY))
+            gameObjects().addGameObject(createDebugOverlay(), Layer.UI);
+    }
+
+    /**
+     * Creates the debug overlay showing live frame-time percentiles, below the energy display.
+     *
+     * @return A DebugOverlay instance.
+     */
+    private DebugOverlay createDebugOverlay(){
+        DebugOverlay debugOverlay = new DebugOverlay(
+                        new Vector2(10, 35),
+                        new Vector2(10, 20),
+                        new TextRenderable(""));
+        debugOverlay.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        return debugOverlay;
     }
 
     /**
@@ -177,7 +497,11 @@ public class PepseGameManager extends GameManager {
         sunHalo.addComponent((float f) -> sunHalo.setCenter(sun.getCenter()));
         gameObjects().addGameObject(sunHalo, HALO_LAYER);
 
-        cloud = new Cloud(windowController.getWindowDimensions());
+        RainParticles rain = new RainParticles(windowController.getWindowDimensions(), MAX_RAIN_DROPS,
+                heightfieldCollider, () -> camera().getTopLeftCorner());
+        gameObjects().addGameObject(rain, RAIN_LAYER);
+
+        cloud = new Cloud(windowController.getWindowDimensions(), rain);
         List<Block> cloudBlocks = cloud.create();
         gameObjects().addGameObject(cloud, CLOUD_LAYER);
 
@@ -188,65 +512,68 @@ public class PepseGameManager extends GameManager {
 
     /**
      * Loads and unloads chunks based on the avatar's current chunk position.
-     * Loads the next chunk ahead and unloads chunks far behind or ahead accordingly.
+     * Keeps the chunks within the attach radius loaded and unloads the rest, spending at most the frame's
+     * attach budget on it, then requests the chunks ahead of the avatar from the chunk generator.
      *
      * @param newChunkId The new chunk ID where the avatar currently is.
      */
     private void updateChunks(int newChunkId){
-        if(newChunkId > currentChunkId){
-            chunkMap.get(currentChunkId - 1).unloadChunk();
-            currentChunkId = newChunkId;
-            int nextChunkId = newChunkId + 1;
-            if (chunkMap.containsKey(nextChunkId))
-                chunkMap.get(nextChunkId).loadChunk();
-            else
-                chunkMap.put(nextChunkId, initializeChunk(nextChunkId * chunkLength, nextChunkId ));
-        }
-
-        if(newChunkId < currentChunkId){
-            chunkMap.get(currentChunkId + 1).unloadChunk();
+        long start = System.nanoTime();
+        collectGeneratedChunks();
+        if (newChunkId != currentChunkId){
             currentChunkId = newChunkId;
-            int nextChunkId = newChunkId - 1;
-
-            if (chunkMap.containsKey(nextChunkId))
-                chunkMap.get(nextChunkId).loadChunk();
-            else
-                chunkMap.put(nextChunkId, initializeChunk(nextChunkId * chunkLength, nextChunkId ));
+            attachChunks(currentChunkId);
         }
+        chunkAttachScheduler.update(avatar.getCenter().x());
+        Metrics.recordRemovals(chunkAttachScheduler.getLastRemovals(), chunkAttachScheduler.getPendingRemovals());
+        prefetchChunks(currentChunkId, avatar.getVelocity().x());
+        Metrics.setChunkCounts(attachedChunkIds.size(), chunkCache.size());
+        Metrics.setPrefetchCounts(chunkPrefetcher.getHits(), chunkPrefetcher.getMisses());
+        Metrics.record(Subsystem.UPDATE_CHUNKS, start);
     }
 
     /**
      * Called every frame to update the game state.
-     * Updates chunks based on avatar position,
-     * triggers rain if avatar jumped,
-     * and removes game objects tagged for removal.
+     * Updates chunks based on avatar position, so that the chunk under the avatar is fully attached,
+     * resolves the avatar's collisions with trunks, fruits and the ground,
+     * grows back the fruits whose regrowth deadline was reached, sways the leaves of loaded chunks,
+     * and triggers rain if avatar jumped.
+     * The frame is recorded in {@link Metrics}. Does nothing once the world is closed.
      *
      * @param deltaTime Time elapsed since last frame in seconds.
      */
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
-        updateChunks(currentAvatarChunk());
-
-        if (avatar.didAvatarJump()){
-            List<Block> rainDrops = cloud.rain();
-            for (Block block : rainDrops) {
-                gameObjects().addGameObject(block, RAIN_LAYER);
-            }
-        }
-
-        for (GameObject go : gameObjects()){
-            if (go.getTag().equals(OBJECT_REMOVE_TAG))
-                gameObjects().removeGameObject(go);
+        synchronized (worldLock) {
+            if (worldClosed)
+                return;
+            long start = System.nanoTime();
+            super.update(deltaTime);
+            terrain.reclaim();
+            flora.reclaim();
+            updateChunks(currentAvatarChunk());
+            staticObjectCollider.update(avatar);
+            Metrics.recordBroadphase(staticObjectCollider.getLastCandidatePairs(),
+                    staticObjectCollider.getIndexedObjects());
+            heightfieldCollider.update(deltaTime);
+            regrowth.advance(deltaTime);
+            leafSway.update(deltaTime);
+
+            if (avatar.didAvatarJump())
+                cloud.rain();
+
+            Metrics.recordFrame(start, deltaTime);
         }
     }
 
     /**
-     * Main entry point to run the Pepse game.
+     * Main entry point to run the Pepse game. The world is saved once the game loop returns.
      *
      * @param args Command line arguments (not used).
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        PepseGameManager gameManager = new PepseGameManager();
+        gameManager.run();
+        gameManager.closeWorld();
     }
 }
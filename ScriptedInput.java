@@ -0,0 +1,81 @@
+package pepse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scripted source of key presses, standing in for the user in a headless simulation.
+ * <p>
+ * The script is a set of periodic rules, each holding a key down during a fixed window of its period.
+ * The simulation advances the script's clock every tick, so a run is reproducible for a given timestep.
+ */
+public class ScriptedInput {
+
+    /**
+     * Holds a key down during a window of every period.
+     */
+    private static class Rule {
+        private final int keyCode;
+        private final float period;
+        private final float from;
+        private final float to;
+
+        /**
+         * Constructs a rule.
+         *
+         * @param keyCode The key to hold, as a {@link java.awt.event.KeyEvent} key code.
+         * @param period  The period of the rule, in seconds.
+         * @param from    The time within the period the key is pressed at, in seconds.
+         * @param to      The time within the period the key is released at, in seconds.
+         */
+        private Rule(int keyCode, float period, float from, float to) {
+            this.keyCode = keyCode;
+            this.period = period;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private final List<Rule> rules = new ArrayList<>();
+    private float time = 0;
+
+    /**
+     * Holds a key down from one time to another within every period.
+     *
+     * @param keyCode The key to hold, as a {@link java.awt.event.KeyEvent} key code.
+     * @param period  The period of the rule, in seconds.
+     * @param from    The time within the period the key is pressed at, in seconds.
+     * @param to      The time within the period the key is released at, in seconds.
+     * @return This script, to chain further rules.
+     */
+    public ScriptedInput hold(int keyCode, float period, float from, float to) {
+        rules.add(new Rule(keyCode, period, from, to));
+        return this;
+    }
+
+    /**
+     * Advances the script's clock.
+     *
+     * @param deltaTime Time elapsed since the last tick in seconds.
+     */
+    public void advance(float deltaTime) {
+        time += deltaTime;
+    }
+
+    /**
+     * Returns whether a key is currently held down by the script.
+     *
+     * @param keyCode The key, as a {@link java.awt.event.KeyEvent} key code.
+     * @return true if any rule holds the key down at the current time.
+     */
+    public boolean isKeyPressed(int keyCode) {
+        for (Rule rule : rules) {
+            if (rule.keyCode != keyCode)
+                continue;
+            float phase = time % rule.period;
+            if (phase >= rule.from && phase < rule.to)
+                return true;
+        }
+        return false;
+    }
+}
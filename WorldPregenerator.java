@@ -0,0 +1,192 @@
+package pepse;
+
+import pepse.persistence.ChunkStore;
+import pepse.util.TimerWheel;
+import pepse.world.HeightMap;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates a range of the world's chunks ahead of time and writes them to the world's chunk store,
+ * so that the game loads them instead of generating them, for example on demo kiosks or for benchmark baselines.
+ * <p>
+ * The range is split recursively among the workers of a {@link ForkJoinPool}, which steal from each other
+ * when their part finishes early. A chunk's content depends only on the world seed and the chunk id, so
+ * the chunks come out identical whatever the number of workers and the order they run in.
+ * Every task encodes its chunks in parallel with the others and writes them to the store in one batch;
+ * the writes themselves are serialized by the store, and are part of the measured time.
+ * <p>
+ * To report how generation scales with cores, the range is generated once at full parallelism to warm up the
+ * JIT compiler, then with a single worker, and with twice as many workers each time, up to the given parallelism.
+ * Every run generates the whole range from a cold height cache and rewrites it to the store, replacing chunks
+ * saved before. Chunks per second and speedup over a single worker are reported for every measured run.
+ * <p>
+ * Usage: {@code WorldPregenerator [minChunkId] [maxChunkId] [parallelism]}, both chunk ids inclusive.
+ */
+public class WorldPregenerator {
+
+    private static final int DEFAULT_MIN_CHUNK_ID = -500;
+    private static final int DEFAULT_MAX_CHUNK_ID = 500;
+    private static final int CHUNKS_PER_TASK = 4;
+    private static final int MAX_CACHED_HEIGHT_CHUNKS = 64;
+    private static final float NANOS_PER_SECOND = 1e9f;
+
+    private final ChunkStore chunkStore;
+    private final int minChunkId;
+    private final int maxChunkId;
+
+    /**
+     * Constructs a WorldPregenerator of a range of chunks.
+     *
+     * @param chunkStore The store the chunks are written to.
+     * @param minChunkId The id of the first chunk to generate.
+     * @param maxChunkId The id of the last chunk to generate.
+     */
+    public WorldPregenerator(ChunkStore chunkStore, int minChunkId, int maxChunkId) {
+        this.chunkStore = chunkStore;
+        this.minChunkId = minChunkId;
+        this.maxChunkId = maxChunkId;
+    }
+
+    /**
+     * Generates the whole range on a pool of the given number of workers, and writes it to the store.
+     *
+     * @param parallelism The number of worker threads.
+     * @return The time the run took, in nanoseconds.
+     * @throws IOException If a chunk cannot be written to the store.
+     */
+    public long run(int parallelism) throws IOException {
+        Terrain terrain = PepseGameManager.createTerrain();
+        HeightMap heightMap = new HeightMap(terrain, PepseGameManager.CHUNK_LENGTH, MAX_CACHED_HEIGHT_CHUNKS);
+        // Fruits are only described here, never scheduled, so the wheel is never advanced.
+        Flora flora = new Flora(terrain, heightMap, new TimerWheel(0, 1, 1));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new GenerateRange(terrain, heightMap, flora, minChunkId, maxChunkId + 1));
+            chunkStore.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the number of chunks in the range.
+     *
+     * @return The chunk count.
+     */
+    public int getChunkCount() {
+        return maxChunkId - minChunkId + 1;
+    }
+
+    /**
+     * A fork-join task that generates a range of chunks and writes them to the store,
+     * splitting the range in halves until it is small enough to generate directly.
+     * Tasks are never serialized, so their fields need not be serializable.
+     */
+    @SuppressWarnings("serial")
+    private final class GenerateRange extends RecursiveAction {
+
+        private final Terrain terrain;
+        private final HeightMap heightMap;
+        private final Flora flora;
+        private final int fromChunkId;
+        private final int toChunkId;
+
+        /**
+         * Constructs a task of a range of chunks.
+         *
+         * @param terrain     The world's terrain.
+         * @param heightMap   The cache of the terrain's ground heights.
+         * @param flora       The flora that describes the chunks' trees.
+         * @param fromChunkId The id of the first chunk, inclusive.
+         * @param toChunkId   The id of the last chunk, exclusive.
+         */
+        private GenerateRange(Terrain terrain, HeightMap heightMap, Flora flora, int fromChunkId, int toChunkId) {
+            this.terrain = terrain;
+            this.heightMap = heightMap;
+            this.flora = flora;
+            this.fromChunkId = fromChunkId;
+            this.toChunkId = toChunkId;
+        }
+
+        /**
+         * Generates the chunks of the range and writes them to the store in one batch, or forks its two halves.
+         * A chunk's heights are dropped from the cache once it is generated, since no other chunk reads them.
+         */
+        @Override
+        protected void compute() {
+            if (toChunkId - fromChunkId > CHUNKS_PER_TASK) {
+                int middle = fromChunkId + (toChunkId - fromChunkId) / 2;
+                invokeAll(new GenerateRange(terrain, heightMap, flora, fromChunkId, middle),
+                        new GenerateRange(terrain, heightMap, flora, middle, toChunkId));
+                return;
+            }
+            List<ChunkData> chunks = new ArrayList<>(toChunkId - fromChunkId);
+            for (int chunkId = fromChunkId; chunkId < toChunkId; chunkId++) {
+                chunks.add(PepseGameManager.generateChunkData(chunkId, terrain, heightMap, flora));
+                heightMap.evict(chunkId);
+            }
+            try {
+                chunkStore.saveAll(chunks);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the worker counts to measure: powers of two up to the given parallelism, and the parallelism itself.
+     *
+     * @param parallelism The largest worker count.
+     * @return The worker counts, in increasing order.
+     */
+    private static List<Integer> workerCounts(int parallelism) {
+        List<Integer> counts = new ArrayList<>();
+        for (int count = 1; count < parallelism; count *= 2) {
+            counts.add(count);
+        }
+        counts.add(parallelism);
+        return counts;
+    }
+
+    /**
+     * Pre-generates a range of chunks into the world's chunk store, reporting throughput and core scaling.
+     *
+     * @param args The first and last chunk ids and the largest number of workers, all optional.
+     */
+    public static void main(String[] args) {
+        int minChunkId = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MIN_CHUNK_ID;
+        int maxChunkId = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_CHUNK_ID;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        try (ChunkStore chunkStore = new ChunkStore(PepseGameManager.saveDirectory())) {
+            WorldPregenerator pregenerator = new WorldPregenerator(chunkStore, minChunkId, maxChunkId);
+            System.out.printf("pre-generating chunks %d..%d into %s%n",
+                    minChunkId, maxChunkId, PepseGameManager.saveDirectory());
+            pregenerator.run(parallelism);
+            long singleWorkerNanos = 0;
+            for (int workers : workerCounts(parallelism)) {
+                long nanos = pregenerator.run(workers);
+                if (workers == 1)
+                    singleWorkerNanos = nanos;
+                System.out.printf("workers: %d, chunks: %d, time: %.3f s, chunks per second: %.1f, speedup: %.2f"
+                                + " (store writes serialized)%n",
+                        workers, pregenerator.getChunkCount(), nanos / NANOS_PER_SECOND,
+                        pregenerator.getChunkCount() * NANOS_PER_SECOND / nanos,
+                        (double) singleWorkerNanos / nanos);
+            }
+        } catch (IOException e) {
+            System.err.println("pre-generation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.Chunk;
+import pepse.ChunkData;
+import pepse.world.Block;
+import pepse.world.SpatialHash;
+import pepse.world.trees.LeafSway;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of building a full chunk, the way the game manager does when a chunk
+ * is neither cached nor stored: generating its data, then materializing its blocks and trees.
+ * <p>
+ * Sampled, so that JMH reports the p50 and p99 latencies. Run with the GC profiler
+ * ({@code -prof gc}) to get the allocation rate, normalised per chunk as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkBuildBenchmark {
+
+    /**
+     * Builds and materializes one chunk, without loading it into a game object collection.
+     *
+     * @param world The benchmark parameters and generators.
+     * @return The built chunk.
+     */
+    @Benchmark
+    public Chunk buildChunk(WorldState world) {
+        int chunkId = world.nextChunkId();
+        int startX = world.chunkStart(chunkId);
+        ChunkData data = new ChunkData(chunkId,
+                world.terrain.generateColumns(world.heightMap.getFirstColumn(chunkId),
+                        world.heightMap.getChunkHeights(chunkId)),
+                world.flora.generateInRange(startX, startX + world.chunkWidth));
+        Chunk chunk = new Chunk(null, new LeafSway(), new SpatialHash(Block.SIZE), world.terrain, world.flora, data);
+        chunk.materialize();
+        return chunk;
+    }
+}
@@ -0,0 +1,99 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.util.SeedHasher;
+import pepse.world.Block;
+import pepse.world.trees.Tree;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many terrain blocks and trees per second the world generators build,
+ * one chunk's width at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    /**
+     * The built objects counted as operations, so that results are reported in objects per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Built {
+        /** The number of terrain blocks built. */
+        public long blocks;
+        /** The number of trees built. */
+        public long trees;
+
+        /**
+         * Resets the counters before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            blocks = 0;
+            trees = 0;
+        }
+    }
+
+    /**
+     * Builds the terrain blocks of one chunk, with {@code Terrain.createInRange}.
+     *
+     * @param world The benchmark parameters and generators.
+     * @param built The built object counters.
+     * @return The built blocks.
+     */
+    @Benchmark
+    public List<Block> terrainBlocks(WorldState world, Built built) {
+        int startX = world.chunkStart(world.nextChunkId());
+        List<Block> blocks = world.terrain.createInRange(startX, startX + world.chunkWidth);
+        built.blocks += blocks.size();
+        return blocks;
+    }
+
+    /**
+     * Builds the trees of one chunk, with {@code Flora.createInRange}.
+     *
+     * @param world The benchmark parameters and generators.
+     * @param built The built object counters.
+     * @return The built trees.
+     */
+    @Benchmark
+    public List<Tree> floraTrees(WorldState world, Built built) {
+        int startX = world.chunkStart(world.nextChunkId());
+        List<Tree> trees = world.flora.createInRange(startX, startX + world.chunkWidth);
+        built.trees += trees.size();
+        return trees;
+    }
+
+    /**
+     * Builds a single tree with {@code new Tree(...)}, at a fresh position and seed.
+     *
+     * @param world The benchmark parameters and generators.
+     * @param built The built object counters.
+     * @return The built tree.
+     */
+    @Benchmark
+    public Tree singleTree(WorldState world, Built built) {
+        int chunkId = world.nextChunkId();
+        Vector2 position = new Vector2(world.chunkStart(chunkId), world.windowDimensions.y() / 2);
+        Tree tree = new Tree(position, SeedHasher.hash(world.seed, chunkId), world.regrowth);
+        built.trees++;
+        return tree;
+    }
+}
@@ -0,0 +1,98 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pepse.util.NoiseGenerator;
+import pepse.world.Block;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many noise samples per second {@link NoiseGenerator} produces, sampling one chunk's width
+ * pixel by pixel, either one sample at a time, as the ground height lookups do, or in one batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NoiseBenchmark {
+
+    private static final int NOISE_SMOOTHNESS = 7;
+    private static final int START_POINT = 480;
+
+    private NoiseGenerator noiseGenerator;
+    private double[] values;
+    private double offset = 0;
+
+    /**
+     * The samples counted as operations, so that results are reported in samples per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Samples {
+        /** The number of noise samples taken. */
+        public long samples;
+
+        /**
+         * Resets the counter before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            samples = 0;
+        }
+    }
+
+    /**
+     * Creates the noise generator for the benchmark's seed.
+     *
+     * @param world The benchmark parameters.
+     */
+    @Setup(Level.Trial)
+    public void setUp(WorldState world) {
+        noiseGenerator = new NoiseGenerator(world.seed, START_POINT);
+        values = new double[world.chunkWidth];
+    }
+
+    /**
+     * Samples the noise at every pixel of one chunk's width.
+     *
+     * @param world     The benchmark parameters.
+     * @param samples   The sample counter.
+     * @param blackhole Consumes the samples.
+     */
+    @Benchmark
+    public void noiseSamples(WorldState world, Samples samples, Blackhole blackhole) {
+        for (int x = 0; x < world.chunkWidth; x++) {
+            blackhole.consume(noiseGenerator.noise(offset + x, Block.SIZE * NOISE_SMOOTHNESS));
+        }
+        offset += world.chunkWidth;
+        samples.samples += world.chunkWidth;
+    }
+
+    /**
+     * Samples the noise at every pixel of one chunk's width, in one batch.
+     *
+     * @param world   The benchmark parameters.
+     * @param samples The sample counter.
+     * @return The samples.
+     */
+    @Benchmark
+    public double[] noiseBatch(WorldState world, Samples samples) {
+        noiseGenerator.noise(offset, 1, Block.SIZE * NOISE_SMOOTHNESS, values);
+        offset += world.chunkWidth;
+        samples.samples += world.chunkWidth;
+        return values;
+    }
+}
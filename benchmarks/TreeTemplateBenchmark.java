@@ -0,0 +1,81 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.util.SeedHasher;
+import pepse.world.Block;
+import pepse.world.trees.Tree;
+import pepse.world.trees.TreeData;
+import pepse.world.trees.TreeTemplates;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many tree descriptions per second are generated by rolling every canopy cell at random,
+ * as {@code new Tree(...)} does, and by stamping one of the world's {@link TreeTemplates}, as chunk building does.
+ * Every operation describes one tree, at a fresh column.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TreeTemplateBenchmark {
+
+    private static final long TREE_SALT = 3;
+    private static final float TREE_BASE_Y = 480;
+
+    /** The world seed. */
+    @Param({"0", "1234"})
+    public int seed;
+
+    /** The number of canopy layouts for every trunk height. The game uses 64. */
+    @Param({"64"})
+    public int templatesPerHeight;
+
+    private TreeTemplates templates;
+    private int column = 0;
+
+    /**
+     * Builds the template library for the benchmark's seed.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        templates = new TreeTemplates(seed, templatesPerHeight);
+    }
+
+    /**
+     * Describes a tree by rolling its trunk and every cell of its canopy.
+     *
+     * @return The tree's data description.
+     */
+    @Benchmark
+    public TreeData rolledTree() {
+        long hash = SeedHasher.hash(seed, column, TREE_SALT);
+        float x = column++ * Block.SIZE;
+        return Tree.generateData(new Vector2(x, TREE_BASE_Y), hash);
+    }
+
+    /**
+     * Describes a tree by stamping the template picked by the hash of its column.
+     *
+     * @return The tree's data description.
+     */
+    @Benchmark
+    public TreeData stampedTree() {
+        long hash = SeedHasher.hash(seed, column, TREE_SALT);
+        float x = column++ * Block.SIZE;
+        return templates.stamp(x, TREE_BASE_Y, hash);
+    }
+}
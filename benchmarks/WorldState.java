@@ -0,0 +1,77 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.TimerWheel;
+import pepse.world.HeightMap;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+
+/**
+ * The world generators shared by the benchmarks, parameterised by chunk width and world seed,
+ * so that results are comparable across chunk sizes and worlds.
+ */
+@State(Scope.Benchmark)
+public class WorldState {
+
+    private static final float WINDOW_HEIGHT = 720;
+    private static final int MAX_CACHED_HEIGHT_CHUNKS = 32;
+    private static final double REGROWTH_TICK_SECONDS = 0.1;
+    private static final int REGROWTH_WHEEL_SLOTS = 512;
+
+    /** The width of a chunk, in pixels. The game uses 32 block columns, that is 960 pixels. */
+    @Param({"480", "960", "1920"})
+    public int chunkWidth;
+
+    /** The world seed. */
+    @Param({"0", "1234"})
+    public int seed;
+
+    /** How terrain columns are turned into colliding game objects. */
+    @Param({"MERGED_COLUMNS"})
+    public Terrain.ColliderMode colliderMode;
+
+    Vector2 windowDimensions;
+    Terrain terrain;
+    HeightMap heightMap;
+    TimerWheel regrowth;
+    Flora flora;
+    private int nextChunkId = 0;
+
+    /**
+     * Creates the terrain and flora generators, and the regrowth wheel of their fruits.
+     * Every benchmark visits fresh chunks, so the height map only holds a bounded window of them.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        windowDimensions = new Vector2(chunkWidth, WINDOW_HEIGHT);
+        terrain = new Terrain(windowDimensions, seed, colliderMode);
+        heightMap = new HeightMap(terrain, chunkWidth, MAX_CACHED_HEIGHT_CHUNKS);
+        regrowth = new TimerWheel(0, REGROWTH_TICK_SECONDS, REGROWTH_WHEEL_SLOTS);
+        flora = new Flora(terrain, heightMap, regrowth);
+    }
+
+    /**
+     * Returns the id of a chunk not measured before in this trial, so that every invocation
+     * generates different content, as a player walking through the world would.
+     *
+     * @return A fresh chunk id.
+     */
+    int nextChunkId() {
+        return nextChunkId++;
+    }
+
+    /**
+     * Returns the left edge of a chunk.
+     *
+     * @param chunkId The id number of the chunk.
+     * @return The chunk's minimal x-coordinate.
+     */
+    int chunkStart(int chunkId) {
+        return chunkId * chunkWidth;
+    }
+}
@@ -0,0 +1,35 @@
+package pepse.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event recording the build of one chunk, on the thread that built it.
+ */
+@Name("pepse.ChunkBuild")
+@Label("Chunk Build")
+@Category("Pepse")
+@Description("The time and memory spent loading or generating the data of one chunk")
+@StackTrace(false)
+class ChunkBuildEvent extends jdk.jfr.Event {
+
+    @Label("Chunk Id")
+    int chunkId;
+
+    @Label("Data Size")
+    @DataAmount
+    long dataBytes;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,34 @@
+package pepse.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event recording the materialization of one chunk's game objects, on the game thread.
+ */
+@Name("pepse.ChunkMaterialize")
+@Label("Chunk Materialize")
+@Category("Pepse")
+@Description("The time and memory spent building the game objects of one chunk from its data")
+@StackTrace(false)
+class ChunkMaterializeEvent extends jdk.jfr.Event {
+
+    @Label("Chunk Id")
+    int chunkId;
+
+    @Label("Object Count")
+    int objectCount;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
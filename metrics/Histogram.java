@@ -0,0 +1,107 @@
+package pepse.metrics;
+
+/**
+ * A fixed-size histogram of non-negative long values, such as durations in nanoseconds or sizes in bytes.
+ * <p>
+ * Every power of two is split into {@value #SUB_BUCKETS} equal buckets, so a recorded value is
+ * reported with a relative error of at most 1/{@value #SUB_BUCKETS}, whatever its magnitude.
+ * Recording costs a few bit operations and allocates nothing. Safe to use from several threads.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value to record.
+     */
+    public synchronized void record(long value) {
+        value = Math.max(0, value);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The value count.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean, or 0 if no value was recorded.
+     */
+    public synchronized double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum, or 0 if no value was recorded.
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns an upper bound of the value below which the given fraction of the recorded values lie.
+     *
+     * @param percentile The fraction, in [0, 1].
+     * @return The percentile, within the histogram's precision, or 0 if no value was recorded.
+     */
+    public synchronized long getPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank)
+                return Math.min(max, bucketUpperBound(bucket));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     * Values below {@value #SUB_BUCKETS} have a bucket each; above them, each power of two is split
+     * by the bits following its leading one.
+     *
+     * @param value The non-negative value.
+     * @return The bucket index.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     *
+     * @param bucket The bucket index.
+     * @return The bucket's inclusive upper bound.
+     */
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
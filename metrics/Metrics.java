@@ -0,0 +1,429 @@
+package pepse.metrics;
+
+import danogl.collisions.Layer;
+import jdk.jfr.FlightRecorder;
+import pepse.Chunk;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The game's instrumentation surface: in-process counters and histograms, mirrored as Flight Recorder events.
+ * <p>
+ * Subsystems are timed by taking {@link System#nanoTime()} before running and passing it to
+ * {@link #record}, which costs one histogram update, plus one event when a recording is running.
+ * Chunk builds, which load or generate a chunk's data, and chunk materializations, which build its game
+ * objects on the game thread, also record the bytes allocated by their thread. The number of loaded and
+ * cached chunks, of chunk prefetch hits and misses, of broadphase candidate pairs and indexed objects,
+ * of game objects removed per frame and waiting to be removed, and of chunk objects per layer are kept as
+ * counters, and sampled every second into a {@code pepse.WorldStatistics} event. Start a recording with
+ * {@code -XX:StartFlightRecording=filename=pepse.jfr} to collect the events.
+ * <p>
+ * Timings and allocations may be recorded from any thread; counters and the rolling frame windows
+ * are updated from the game thread only.
+ */
+public final class Metrics {
+
+    private static final int FRAME_WINDOW = 240;
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+
+    private static final Histogram[] LATENCIES = new Histogram[Subsystem.values().length];
+    private static final Histogram CHUNK_ALLOCATIONS = new Histogram();
+    private static final Histogram MATERIALIZE_ALLOCATIONS = new Histogram();
+    private static final RollingWindow FRAME_TIMES = new RollingWindow(FRAME_WINDOW);
+    private static final RollingWindow UPDATE_TIMES = new RollingWindow(FRAME_WINDOW);
+    private static final int[] LAYER_OBJECTS = new int[Layer.UI - Layer.BACKGROUND + 1];
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+    private static volatile int loadedChunks = 0;
+    private static volatile int cachedChunks = 0;
+    private static volatile long prefetchHits = 0;
+    private static volatile long prefetchMisses = 0;
+    private static volatile int candidatePairs = 0;
+    private static volatile int indexedObjects = 0;
+    private static int maxCandidatePairs = 0;
+    private static long totalCandidatePairs = 0;
+    private static long broadphaseFrames = 0;
+    private static volatile int removals = 0;
+    private static volatile int removalQueueDepth = 0;
+    private static int maxRemovals = 0;
+    private static int maxRemovalQueueDepth = 0;
+    private static long totalRemovals = 0;
+
+    static {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i] = new Histogram();
+        }
+        FlightRecorder.addPeriodicEvent(WorldStatisticsEvent.class, Metrics::emitWorldStatistics);
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Returns the thread bean that measures per-thread allocations, if this JVM supports it.
+     *
+     * @return The bean, or null if allocations cannot be measured.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported()
+                && sunThreads.isThreadAllocatedMemoryEnabled())
+            return sunThreads;
+        return null;
+    }
+
+    /**
+     * Records one run of a subsystem that started at the given time and just ended.
+     *
+     * @param subsystem  The subsystem that ran.
+     * @param startNanos The {@link System#nanoTime()} at which it started.
+     */
+    public static void record(Subsystem subsystem, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        LATENCIES[subsystem.ordinal()].record(elapsed);
+        SubsystemEvent event = new SubsystemEvent();
+        if (event.isEnabled()) {
+            event.subsystem = subsystem.getLabel();
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records one frame: the time since the previous frame, and the time spent updating the game.
+     *
+     * @param startNanos The {@link System#nanoTime()} at which the frame's update started.
+     * @param deltaTime  Time elapsed since last frame in seconds.
+     */
+    public static void recordFrame(long startNanos, float deltaTime) {
+        UPDATE_TIMES.add(System.nanoTime() - startNanos);
+        FRAME_TIMES.add((long) (deltaTime * NANOS_PER_SECOND));
+        record(Subsystem.FRAME, startNanos);
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread.
+     * Taken before and after some work, the difference is the memory allocated by that work.
+     *
+     * @return The allocated byte count, or -1 if allocations cannot be measured.
+     */
+    public static long allocatedBytes() {
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records the build of a chunk on the current thread, which just ended.
+     *
+     * @param chunk           The built chunk.
+     * @param startNanos      The {@link System#nanoTime()} at which the build started.
+     * @param startAllocation The {@link #allocatedBytes()} of the current thread when the build started.
+     */
+    public static void recordChunkBuild(Chunk chunk, long startNanos, long startAllocation) {
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = startAllocation < 0 ? -1 : allocatedBytes() - startAllocation;
+        LATENCIES[Subsystem.CHUNK_BUILD.ordinal()].record(elapsed);
+        if (allocated >= 0)
+            CHUNK_ALLOCATIONS.record(allocated);
+        ChunkBuildEvent event = new ChunkBuildEvent();
+        if (event.isEnabled()) {
+            event.chunkId = chunk.getChunkId();
+            event.dataBytes = chunk.estimatedBytes();
+            event.allocatedBytes = allocated;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the materialization of a chunk's game objects on the current thread, which just ended.
+     *
+     * @param chunk           The materialized chunk.
+     * @param startNanos      The {@link System#nanoTime()} at which the materialization started.
+     * @param startAllocation The {@link #allocatedBytes()} of the current thread when it started.
+     */
+    public static void recordMaterialize(Chunk chunk, long startNanos, long startAllocation) {
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = startAllocation < 0 ? -1 : allocatedBytes() - startAllocation;
+        LATENCIES[Subsystem.MATERIALIZE.ordinal()].record(elapsed);
+        if (allocated >= 0)
+            MATERIALIZE_ALLOCATIONS.record(allocated);
+        ChunkMaterializeEvent event = new ChunkMaterializeEvent();
+        if (event.isEnabled()) {
+            event.chunkId = chunk.getChunkId();
+            event.objectCount = chunk.getObjectCount();
+            event.allocatedBytes = allocated;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts game objects added to, or removed from, a layer of the game object collection.
+     *
+     * @param layer The layer, between {@link Layer#BACKGROUND} and {@link Layer#UI}.
+     * @param delta The number of added objects, negative for removed ones.
+     */
+    public static void addLayerObjects(int layer, int delta) {
+        LAYER_OBJECTS[layer - Layer.BACKGROUND] += delta;
+    }
+
+    /**
+     * Updates the number of loaded and cached chunks.
+     *
+     * @param loaded The number of chunks that are attached or being attached.
+     * @param cached The number of chunks held in memory.
+     */
+    public static void setChunkCounts(int loaded, int cached) {
+        loadedChunks = loaded;
+        cachedChunks = cached;
+    }
+
+    /**
+     * Updates the number of chunks that were, and were not, built ahead of time when the avatar needed them.
+     *
+     * @param hits   The prefetch hit count so far.
+     * @param misses The prefetch miss count so far.
+     */
+    public static void setPrefetchCounts(long hits, long misses) {
+        prefetchHits = hits;
+        prefetchMisses = misses;
+    }
+
+    /**
+     * Records one frame of the static object broadphase: the candidate pairs tested against the avatar,
+     * out of the objects indexed.
+     *
+     * @param pairs   The number of candidate pairs tested in the frame.
+     * @param indexed The number of indexed static objects.
+     */
+    public static void recordBroadphase(int pairs, int indexed) {
+        candidatePairs = pairs;
+        indexedObjects = indexed;
+        maxCandidatePairs = Math.max(maxCandidatePairs, pairs);
+        totalCandidatePairs += pairs;
+        broadphaseFrames++;
+    }
+
+    /**
+     * Records one frame of deferred game object removals: the objects removed in the frame, and those still
+     * waiting to be removed, as chunks are detached a few objects at a time.
+     *
+     * @param removed The number of game objects removed in the frame.
+     * @param pending The number of game objects waiting to be removed after the frame.
+     */
+    public static void recordRemovals(int removed, int pending) {
+        removals = removed;
+        removalQueueDepth = pending;
+        maxRemovals = Math.max(maxRemovals, removed);
+        maxRemovalQueueDepth = Math.max(maxRemovalQueueDepth, pending);
+        totalRemovals += removed;
+    }
+
+    /**
+     * Returns the histogram of a subsystem's run times, in nanoseconds, since the game started.
+     *
+     * @param subsystem The subsystem.
+     * @return The subsystem's histogram.
+     */
+    public static Histogram getLatency(Subsystem subsystem) {
+        return LATENCIES[subsystem.ordinal()];
+    }
+
+    /**
+     * Returns the histogram of the bytes allocated by every chunk build.
+     *
+     * @return The chunk allocation histogram; empty if allocations cannot be measured.
+     */
+    public static Histogram getChunkAllocations() {
+        return CHUNK_ALLOCATIONS;
+    }
+
+    /**
+     * Returns the histogram of the bytes allocated by every chunk materialization.
+     *
+     * @return The materialization allocation histogram; empty if allocations cannot be measured.
+     */
+    public static Histogram getMaterializeAllocations() {
+        return MATERIALIZE_ALLOCATIONS;
+    }
+
+    /**
+     * Returns the times between the most recent frames, in nanoseconds.
+     *
+     * @return The frame time window.
+     */
+    public static RollingWindow getFrameTimes() {
+        return FRAME_TIMES;
+    }
+
+    /**
+     * Returns the time spent updating the game in the most recent frames, in nanoseconds.
+     *
+     * @return The update time window.
+     */
+    public static RollingWindow getUpdateTimes() {
+        return UPDATE_TIMES;
+    }
+
+    /**
+     * Returns the number of chunk objects currently in a layer.
+     *
+     * @param layer The layer, between {@link Layer#BACKGROUND} and {@link Layer#UI}.
+     * @return The layer's chunk object count.
+     */
+    public static int getLayerObjects(int layer) {
+        return LAYER_OBJECTS[layer - Layer.BACKGROUND];
+    }
+
+    /**
+     * Returns the number of chunks that are attached or being attached.
+     *
+     * @return The loaded chunk count.
+     */
+    public static int getLoadedChunks() {
+        return loadedChunks;
+    }
+
+    /**
+     * Returns the number of chunks held in memory.
+     *
+     * @return The cached chunk count.
+     */
+    public static int getCachedChunks() {
+        return cachedChunks;
+    }
+
+    /**
+     * Returns the number of chunks that were already built when the avatar needed them.
+     *
+     * @return The prefetch hit count.
+     */
+    public static long getPrefetchHits() {
+        return prefetchHits;
+    }
+
+    /**
+     * Returns the number of chunks that were waited for, or built on the spot, when the avatar needed them.
+     *
+     * @return The prefetch miss count.
+     */
+    public static long getPrefetchMisses() {
+        return prefetchMisses;
+    }
+
+    /**
+     * Returns the fraction of the chunks needed by the avatar that were already built.
+     *
+     * @return The prefetch hit rate, in [0, 1]; 1 if no chunk was needed yet.
+     */
+    public static double getPrefetchHitRate() {
+        long hits = prefetchHits;
+        long total = hits + prefetchMisses;
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    /**
+     * Returns the number of broadphase candidate pairs tested in the last frame.
+     *
+     * @return The last candidate pair count.
+     */
+    public static int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    /**
+     * Returns the largest number of broadphase candidate pairs tested in a frame.
+     *
+     * @return The maximal candidate pair count.
+     */
+    public static int getMaxCandidatePairs() {
+        return maxCandidatePairs;
+    }
+
+    /**
+     * Returns the mean number of broadphase candidate pairs tested per frame.
+     *
+     * @return The mean candidate pair count, or 0 if no frame was recorded.
+     */
+    public static double getMeanCandidatePairs() {
+        return broadphaseFrames == 0 ? 0 : (double) totalCandidatePairs / broadphaseFrames;
+    }
+
+    /**
+     * Returns the number of static objects indexed for the broadphase in the last frame.
+     *
+     * @return The indexed object count.
+     */
+    public static int getIndexedObjects() {
+        return indexedObjects;
+    }
+
+    /**
+     * Returns the number of game objects removed in the last frame.
+     *
+     * @return The last removal count.
+     */
+    public static int getRemovals() {
+        return removals;
+    }
+
+    /**
+     * Returns the largest number of game objects removed in a frame.
+     *
+     * @return The maximal removal count.
+     */
+    public static int getMaxRemovals() {
+        return maxRemovals;
+    }
+
+    /**
+     * Returns the number of game objects removed so far.
+     *
+     * @return The total removal count.
+     */
+    public static long getTotalRemovals() {
+        return totalRemovals;
+    }
+
+    /**
+     * Returns the number of game objects waiting to be removed after the last frame.
+     *
+     * @return The removal queue depth.
+     */
+    public static int getRemovalQueueDepth() {
+        return removalQueueDepth;
+    }
+
+    /**
+     * Returns the largest number of game objects that waited to be removed after a frame.
+     *
+     * @return The maximal removal queue depth.
+     */
+    public static int getMaxRemovalQueueDepth() {
+        return maxRemovalQueueDepth;
+    }
+
+    /**
+     * Commits a world statistics event. Called by Flight Recorder once per period, on its own thread,
+     * so the layer counts it reads may lag the game thread by a frame.
+     */
+    private static void emitWorldStatistics() {
+        WorldStatisticsEvent event = new WorldStatisticsEvent();
+        event.loadedChunks = loadedChunks;
+        event.cachedChunks = cachedChunks;
+        event.prefetchHits = prefetchHits;
+        event.prefetchMisses = prefetchMisses;
+        event.candidatePairs = candidatePairs;
+        event.indexedObjects = indexedObjects;
+        event.removals = removals;
+        event.removalQueueDepth = removalQueueDepth;
+        event.groundObjects = getLayerObjects(Chunk.GROUND_LAYER);
+        event.trunkObjects = getLayerObjects(Layer.STATIC_OBJECTS);
+        event.leafObjects = getLayerObjects(Chunk.LEAF_LAYER);
+        event.fruitObjects = getLayerObjects(Chunk.FRUIT_LAYER);
+        event.commit();
+    }
+}
@@ -0,0 +1,61 @@
+package pepse.metrics;
+
+import java.util.Arrays;
+
+/**
+ * The most recent values of a series, such as the durations of the last frames, and their percentiles.
+ * Unlike a {@link Histogram}, old values fall out of the window, so its percentiles follow
+ * the current behavior of the game. Meant to be used from the game thread only.
+ */
+public class RollingWindow {
+
+    private final long[] values;
+    private final long[] sorted;
+    private int next = 0;
+    private int size = 0;
+
+    /**
+     * Constructs an empty RollingWindow.
+     *
+     * @param capacity The number of most recent values kept.
+     */
+    public RollingWindow(int capacity) {
+        this.values = new long[capacity];
+        this.sorted = new long[capacity];
+    }
+
+    /**
+     * Adds a value, replacing the oldest one if the window is full.
+     *
+     * @param value The value to add.
+     */
+    public void add(long value) {
+        values[next] = value;
+        next = (next + 1) % values.length;
+        size = Math.min(size + 1, values.length);
+    }
+
+    /**
+     * Returns the number of values in the window.
+     *
+     * @return The window's size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Computes several percentiles of the values in the window, sorting them once.
+     *
+     * @param percentiles The fractions, each in [0, 1].
+     * @param result      The array to fill with the value at every percentile; all 0 if the window is empty.
+     */
+    public void percentiles(double[] percentiles, long[] result) {
+        System.arraycopy(values, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        for (int i = 0; i < percentiles.length; i++) {
+            int index = (int) Math.ceil(percentiles[i] * size) - 1;
+            result[i] = size == 0 ? 0 : sorted[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pepse.metrics;
+
+/**
+ * The parts of the game whose running time is measured by {@link Metrics}.
+ */
+public enum Subsystem {
+    /** A whole call to the game manager's update. */
+    FRAME("frame"),
+    /** Collecting, attaching, detaching and prefetching chunks. */
+    UPDATE_CHUNKS("updateChunks"),
+    /** Getting a chunk from the cache, the chunk generator, or building it on the spot. */
+    INITIALIZE_CHUNK("initializeChunk"),
+    /** Loading or generating a chunk's data, on any thread. */
+    CHUNK_BUILD("chunkBuild"),
+    /** Building a chunk's game objects from its data, when it starts being attached. */
+    MATERIALIZE("materialize"),
+    /** Creating a chunk's terrain blocks. */
+    TERRAIN("terrain"),
+    /** Creating a chunk's trees. */
+    FLORA("flora"),
+    /** Spawning rain drops from the cloud. */
+    RAIN("rain");
+
+    private final String label;
+
+    /**
+     * Constructs a Subsystem constant.
+     *
+     * @param label The subsystem's name, as shown in recordings and reports.
+     */
+    Subsystem(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the subsystem's name, as shown in recordings and reports.
+     *
+     * @return The subsystem's label.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,27 @@
+package pepse.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event recording one run of a measured {@link Subsystem}.
+ * The event is committed after the measured code ran, so its duration is carried in a field.
+ */
+@Name("pepse.Subsystem")
+@Label("Subsystem Run")
+@Category("Pepse")
+@Description("The time spent in one run of a game subsystem")
+@StackTrace(false)
+class SubsystemEvent extends jdk.jfr.Event {
+
+    @Label("Subsystem")
+    String subsystem;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
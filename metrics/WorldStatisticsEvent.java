@@ -0,0 +1,61 @@
+package pepse.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic Flight Recorder event sampling the size of the loaded world, how well chunks are prefetched,
+ * and how many objects the broadphase and the deferred removals handle.
+ */
+@Name("pepse.WorldStatistics")
+@Label("World Statistics")
+@Category("Pepse")
+@Description("The number of chunks and chunk game objects in the game")
+@Period("1 s")
+@StackTrace(false)
+class WorldStatisticsEvent extends jdk.jfr.Event {
+
+    @Label("Loaded Chunks")
+    int loadedChunks;
+
+    @Label("Cached Chunks")
+    int cachedChunks;
+
+    @Label("Prefetch Hits")
+    long prefetchHits;
+
+    @Label("Prefetch Misses")
+    long prefetchMisses;
+
+    @Label("Candidate Pairs")
+    @Description("The static objects tested against the avatar in the last frame")
+    int candidatePairs;
+
+    @Label("Indexed Objects")
+    @Description("The static objects in the broadphase index")
+    int indexedObjects;
+
+    @Label("Removals")
+    @Description("The game objects removed in the last frame")
+    int removals;
+
+    @Label("Removal Queue Depth")
+    @Description("The game objects of detaching chunks still waiting to be removed")
+    int removalQueueDepth;
+
+    @Label("Ground Objects")
+    int groundObjects;
+
+    @Label("Trunk Objects")
+    int trunkObjects;
+
+    @Label("Leaf Objects")
+    int leafObjects;
+
+    @Label("Fruit Objects")
+    int fruitObjects;
+}
@@ -0,0 +1,162 @@
+package pepse.persistence;
+
+import pepse.ChunkData;
+import pepse.world.TerrainColumns;
+import pepse.world.trees.TreeData;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes chunk data descriptions into a compact binary form, and decodes them back.
+ * <p>
+ * Colors are stored as palette index bytes, column heights as shorts, and leaf and fruit layouts
+ * as the bit masks of {@link TreeData}, followed only by the attributes of the cells that are set.
+ * The regrowth deadlines are stored for eaten fruits only.
+ */
+public final class ChunkCodec {
+
+    private static final int CHUNK_HEADER_BYTES = Integer.BYTES * 2 + Short.BYTES + Byte.BYTES + Short.BYTES;
+    private static final int TREE_HEADER_BYTES =
+            Float.BYTES * 2 + Byte.BYTES * 2 + Long.BYTES * 3;
+
+    private ChunkCodec() {
+    }
+
+    /**
+     * Returns the number of bytes the encoded chunk data takes.
+     *
+     * @param data The chunk data to encode.
+     * @return The encoded size, in bytes.
+     */
+    public static int encodedSize(ChunkData data) {
+        TerrainColumns columns = data.getColumns();
+        int size = CHUNK_HEADER_BYTES + columns.getColumnCount() * (Short.BYTES + columns.getDepth() * Byte.BYTES);
+        for (TreeData tree : data.getTrees()) {
+            size += TREE_HEADER_BYTES
+                    + Long.bitCount(tree.getLeafMask()) * Byte.BYTES * 2
+                    + Long.bitCount(tree.getFruitMask()) * Byte.BYTES
+                    + Long.bitCount(tree.getEatenFruitMask()) * Float.BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the encoded chunk data at the buffer's position.
+     *
+     * @param data   The chunk data to encode.
+     * @param buffer The buffer to write to. Must have at least {@link #encodedSize(ChunkData)} bytes remaining.
+     */
+    public static void encode(ChunkData data, ByteBuffer buffer) {
+        TerrainColumns columns = data.getColumns();
+        buffer.putInt(data.getChunkId());
+        buffer.putInt(columns.getFirstColumn());
+        buffer.putShort((short) columns.getColumnCount());
+        buffer.put((byte) columns.getDepth());
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            buffer.putShort((short) columns.getHeight(i));
+        }
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            for (int j = 0; j < columns.getDepth(); j++) {
+                buffer.put((byte) columns.getColorIndex(i, j));
+            }
+        }
+
+        buffer.putShort((short) data.getTrees().size());
+        for (TreeData tree : data.getTrees()) {
+            encodeTree(tree, buffer);
+        }
+    }
+
+    /**
+     * Writes a single encoded tree at the buffer's position.
+     *
+     * @param tree   The tree to encode.
+     * @param buffer The buffer to write to.
+     */
+    private static void encodeTree(TreeData tree, ByteBuffer buffer) {
+        buffer.putFloat(tree.getX());
+        buffer.putFloat(tree.getY());
+        buffer.put((byte) tree.getTrunkHeight());
+        buffer.put((byte) tree.getTrunkColor());
+
+        buffer.putLong(tree.getLeafMask());
+        int leafCount = Long.bitCount(tree.getLeafMask());
+        for (int i = 0; i < leafCount; i++) {
+            buffer.put((byte) tree.getLeafColor(i));
+            buffer.put((byte) tree.getLeafDelay(i));
+        }
+
+        buffer.putLong(tree.getFruitMask());
+        int fruitCount = Long.bitCount(tree.getFruitMask());
+        for (int i = 0; i < fruitCount; i++) {
+            buffer.put((byte) tree.getFruitColor(i));
+        }
+        buffer.putLong(tree.getEatenFruitMask());
+        for (int i = 0; i < fruitCount; i++) {
+            if ((tree.getEatenFruitMask() & (1L << i)) != 0)
+                buffer.putFloat(tree.getFruitRegrowDeadline(i));
+        }
+    }
+
+    /**
+     * Reads encoded chunk data from the buffer's position.
+     *
+     * @param buffer The buffer to read from.
+     * @return The decoded chunk data.
+     */
+    public static ChunkData decode(ByteBuffer buffer) {
+        int chunkId = buffer.getInt();
+        int firstColumn = buffer.getInt();
+        int columnCount = buffer.getShort();
+        int depth = buffer.get();
+        short[] heights = new short[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            heights[i] = buffer.getShort();
+        }
+        byte[] colors = new byte[columnCount * depth];
+        buffer.get(colors);
+
+        int treeCount = buffer.getShort();
+        List<TreeData> trees = new ArrayList<>(treeCount);
+        for (int i = 0; i < treeCount; i++) {
+            trees.add(decodeTree(buffer));
+        }
+        return new ChunkData(chunkId, new TerrainColumns(firstColumn, depth, heights, colors), trees);
+    }
+
+    /**
+     * Reads a single encoded tree from the buffer's position.
+     *
+     * @param buffer The buffer to read from.
+     * @return The decoded tree.
+     */
+    private static TreeData decodeTree(ByteBuffer buffer) {
+        float x = buffer.getFloat();
+        float y = buffer.getFloat();
+        int trunkHeight = buffer.get();
+        int trunkColor = buffer.get();
+
+        long leafMask = buffer.getLong();
+        int leafCount = Long.bitCount(leafMask);
+        byte[] leafColors = new byte[leafCount];
+        byte[] leafDelays = new byte[leafCount];
+        for (int i = 0; i < leafCount; i++) {
+            leafColors[i] = buffer.get();
+            leafDelays[i] = buffer.get();
+        }
+
+        long fruitMask = buffer.getLong();
+        int fruitCount = Long.bitCount(fruitMask);
+        byte[] fruitColors = new byte[fruitCount];
+        buffer.get(fruitColors);
+        long eatenFruitMask = buffer.getLong();
+        float[] fruitRegrowDeadlines = new float[fruitCount];
+        for (int i = 0; i < fruitCount; i++) {
+            if ((eatenFruitMask & (1L << i)) != 0)
+                fruitRegrowDeadlines[i] = buffer.getFloat();
+        }
+        return new TreeData(x, y, trunkHeight, trunkColor, leafMask, leafColors, leafDelays,
+                fruitMask, fruitColors, eatenFruitMask, fruitRegrowDeadlines);
+    }
+}
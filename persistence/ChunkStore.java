@@ -0,0 +1,172 @@
+package pepse.persistence;
+
+import pepse.ChunkData;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent store of chunk data, grouped into region files of {@link RegionFile#REGION_SIZE}
+ * consecutive chunks each.
+ * <p>
+ * The store lets evicted chunks be read back instead of generated again, and lets a world be
+ * resumed later. Region files are opened lazily and kept open until the store is closed.
+ * All methods are synchronized, so chunks can be loaded from generator threads while the game
+ * thread saves evicted ones; {@link #saveAll(List)} only locks the store once its chunks are encoded.
+ */
+public class ChunkStore implements Closeable {
+
+    private static final String REGION_FILE_FORMAT = "region.%d.bin";
+    private static final String WORLD_TIME_FILE = "time.bin";
+
+    private final Path directory;
+    private final Map<Integer, RegionFile> regions = new HashMap<>();
+
+    /**
+     * Constructs a ChunkStore in the given directory, creating the directory if needed.
+     *
+     * @param directory The directory holding the region files.
+     * @throws IOException If the directory cannot be created.
+     */
+    public ChunkStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Returns whether the store holds the data of a chunk.
+     *
+     * @param chunkId The id of the chunk.
+     * @return true if the chunk was saved before.
+     * @throws IOException If the chunk's region file cannot be opened.
+     */
+    public synchronized boolean contains(int chunkId) throws IOException {
+        return region(chunkId).contains(slot(chunkId));
+    }
+
+    /**
+     * Reads the data of a chunk.
+     *
+     * @param chunkId The id of the chunk.
+     * @return The chunk's data, or null if it was never saved.
+     * @throws IOException If the chunk's region file cannot be read.
+     */
+    public synchronized ChunkData load(int chunkId) throws IOException {
+        return region(chunkId).read(slot(chunkId));
+    }
+
+    /**
+     * Writes the data of a chunk, replacing any data saved for it before.
+     *
+     * @param data The chunk's data.
+     * @throws IOException If the chunk's region file cannot be written.
+     */
+    public synchronized void save(ChunkData data) throws IOException {
+        region(data.getChunkId()).write(slot(data.getChunkId()), data);
+    }
+
+    /**
+     * Writes the data of several chunks, replacing any data saved for them before.
+     * The chunks are encoded on the calling thread before the store is locked, and written under a single
+     * lock, so that threads saving batches concurrently only contend for the copy into the region files.
+     *
+     * @param chunks The chunks' data.
+     * @throws IOException If a chunk's region file cannot be written.
+     */
+    public void saveAll(List<ChunkData> chunks) throws IOException {
+        List<ByteBuffer> records = new ArrayList<>(chunks.size());
+        for (ChunkData data : chunks) {
+            ByteBuffer record = ByteBuffer.allocate(ChunkCodec.encodedSize(data));
+            ChunkCodec.encode(data, record);
+            records.add(record.flip());
+        }
+        synchronized (this) {
+            for (int i = 0; i < chunks.size(); i++) {
+                int chunkId = chunks.get(i).getChunkId();
+                region(chunkId).write(slot(chunkId), records.get(i));
+            }
+        }
+    }
+
+    /**
+     * Reads the world time saved with the chunks, so that the times stored in them, such as fruit
+     * regrowth deadlines, keep their meaning when the world is resumed.
+     *
+     * @return The saved world time, in seconds, or 0 if none was saved.
+     * @throws IOException If the world time file cannot be read.
+     */
+    public synchronized double loadWorldTime() throws IOException {
+        Path file = directory.resolve(WORLD_TIME_FILE);
+        if (!Files.exists(file))
+            return 0;
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return buffer.remaining() < Double.BYTES ? 0 : buffer.getDouble();
+    }
+
+    /**
+     * Writes the world time, replacing the one saved before.
+     *
+     * @param worldTime The world time, in seconds.
+     * @throws IOException If the world time file cannot be written.
+     */
+    public synchronized void saveWorldTime(double worldTime) throws IOException {
+        Files.write(directory.resolve(WORLD_TIME_FILE),
+                ByteBuffer.allocate(Double.BYTES).putDouble(worldTime).array());
+    }
+
+    /**
+     * Returns the open region file holding a chunk, opening it if needed.
+     *
+     * @param chunkId The id of the chunk.
+     * @return The chunk's region file.
+     * @throws IOException If the region file cannot be opened.
+     */
+    private RegionFile region(int chunkId) throws IOException {
+        int regionIndex = Math.floorDiv(chunkId, RegionFile.REGION_SIZE);
+        RegionFile region = regions.get(regionIndex);
+        if (region == null) {
+            region = new RegionFile(directory.resolve(String.format(REGION_FILE_FORMAT, regionIndex)));
+            regions.put(regionIndex, region);
+        }
+        return region;
+    }
+
+    /**
+     * Returns a chunk's slot within its region file.
+     *
+     * @param chunkId The id of the chunk.
+     * @return The slot, in [0, {@link RegionFile#REGION_SIZE}).
+     */
+    private static int slot(int chunkId) {
+        return Math.floorMod(chunkId, RegionFile.REGION_SIZE);
+    }
+
+    /**
+     * Writes all changes to the storage device.
+     *
+     * @throws IOException If a region file cannot be flushed.
+     */
+    public synchronized void flush() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.flush();
+        }
+    }
+
+    /**
+     * Flushes and closes all open region files.
+     *
+     * @throws IOException If a region file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.close();
+        }
+        regions.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package pepse.persistence;
+
+import pepse.ChunkData;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file holding the encoded data of a fixed-size group of consecutive chunks.
+ * <p>
+ * The file starts with a header that is memory-mapped for the file's whole lifetime, holding the
+ * offset, length and capacity of every chunk slot. Chunk records are read and written through
+ * memory-mapped views of their slot. A record is rewritten in place when it fits its slot,
+ * and moved to the end of the file otherwise. A file written in another format version is discarded,
+ * since its chunks can be generated again from the world seed. Not thread safe.
+ */
+class RegionFile implements Closeable {
+
+    /** The number of chunks in a region. */
+    static final int REGION_SIZE = 32;
+
+    private static final int MAGIC = 0x50455053;
+    private static final int FORMAT_VERSION = 2;
+    private static final int ENTRY_BYTES = Integer.BYTES * 3;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + REGION_SIZE * ENTRY_BYTES;
+    private static final int SLOT_ALIGNMENT = 512;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+    /**
+     * Opens a region file, creating it if it does not exist or is not a region file of this format.
+     *
+     * @param path The region file's path.
+     * @throws IOException If the file cannot be opened.
+     */
+    RegionFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!hasCurrentFormat())
+            channel.truncate(0);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(Integer.BYTES, FORMAT_VERSION);
+    }
+
+    /**
+     * Returns whether the file starts with the header of this format version.
+     *
+     * @return true if the file's records can be read.
+     * @throws IOException If the file cannot be read.
+     */
+    private boolean hasCurrentFormat() throws IOException {
+        if (channel.size() < HEADER_BYTES)
+            return false;
+        ByteBuffer start = ByteBuffer.allocate(Integer.BYTES * 2);
+        channel.read(start, 0);
+        return start.getInt(0) == MAGIC && start.getInt(Integer.BYTES) == FORMAT_VERSION;
+    }
+
+    /**
+     * Returns whether a chunk slot holds a record.
+     *
+     * @param slot The chunk's slot in this region, in [0, {@link #REGION_SIZE}).
+     * @return true if the slot holds a record.
+     */
+    boolean contains(int slot) {
+        return header.getInt(entryPosition(slot) + Integer.BYTES) > 0;
+    }
+
+    /**
+     * Reads the record of a chunk slot.
+     *
+     * @param slot The chunk's slot in this region, in [0, {@link #REGION_SIZE}).
+     * @return The decoded chunk data, or null if the slot is empty.
+     * @throws IOException If the record cannot be mapped.
+     */
+    ChunkData read(int slot) throws IOException {
+        int entry = entryPosition(slot);
+        int offset = header.getInt(entry);
+        int length = header.getInt(entry + Integer.BYTES);
+        if (length == 0)
+            return null;
+        MappedByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return ChunkCodec.decode(record);
+    }
+
+    /**
+     * Writes the record of a chunk slot, replacing any previous record.
+     *
+     * @param slot The chunk's slot in this region, in [0, {@link #REGION_SIZE}).
+     * @param data The chunk data to encode.
+     * @throws IOException If the record cannot be mapped.
+     */
+    void write(int slot, ChunkData data) throws IOException {
+        ChunkCodec.encode(data, mapRecord(slot, ChunkCodec.encodedSize(data)));
+    }
+
+    /**
+     * Writes an already encoded record to a chunk slot, replacing any previous record.
+     *
+     * @param slot    The chunk's slot in this region, in [0, {@link #REGION_SIZE}).
+     * @param encoded The record, as written by {@link ChunkCodec#encode}, between its position and limit.
+     * @throws IOException If the record cannot be mapped.
+     */
+    void write(int slot, ByteBuffer encoded) throws IOException {
+        mapRecord(slot, encoded.remaining()).put(encoded.duplicate());
+    }
+
+    /**
+     * Maps the space for a slot's new record, moving the slot to the end of the file if the record does
+     * not fit it, and points the slot's entry at the record.
+     *
+     * @param slot   The chunk's slot in this region, in [0, {@link #REGION_SIZE}).
+     * @param length The record's length, in bytes.
+     * @return A writable view of the slot's space, positioned at its start.
+     * @throws IOException If the slot cannot be mapped.
+     */
+    private MappedByteBuffer mapRecord(int slot, int length) throws IOException {
+        int entry = entryPosition(slot);
+        int offset = header.getInt(entry);
+        int capacity = header.getInt(entry + Integer.BYTES * 2);
+        if (length > capacity) {
+            offset = (int) Math.max(HEADER_BYTES, channel.size());
+            capacity = (length + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT * SLOT_ALIGNMENT;
+        }
+        MappedByteBuffer record = channel.map(FileChannel.MapMode.READ_WRITE, offset, capacity);
+        header.putInt(entry, offset);
+        header.putInt(entry + Integer.BYTES, length);
+        header.putInt(entry + Integer.BYTES * 2, capacity);
+        return record;
+    }
+
+    /**
+     * Returns the position of a slot's entry in the header.
+     *
+     * @param slot The chunk's slot in this region.
+     * @return The entry's byte position.
+     */
+    private static int entryPosition(int slot) {
+        return Integer.BYTES * 2 + slot * ENTRY_BYTES;
+    }
+
+    /**
+     * Writes all changes to the storage device.
+     *
+     * @throws IOException If the channel cannot be forced.
+     */
+    void flush() throws IOException {
+        header.force();
+        channel.force(false);
+    }
+
+    /**
+     * Flushes and closes the region file.
+     *
+     * @throws IOException If the file cannot be flushed or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -1,15 +1,80 @@
 package pepse.util;
 
+import danogl.gui.rendering.RectangleRenderable;
 import java.awt.*;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides procedurally-generated colors around a pivot.
+ * <p>
+ * Besides sampling fresh colors, it keeps a shared palette of {@link #PALETTE_SIZE} pre-jittered colors
+ * per base color, together with one renderable per palette color. Objects that pick their color from a
+ * palette share these renderables instead of allocating their own.
  * @author Dan Nirel
  */
 public final class ColorSupplier {
+    /** The number of pre-jittered colors in every palette. */
+    public static final int PALETTE_SIZE = 32;
     private static final int DEFAULT_COLOR_DELTA = 10;
     private final static Random random = new Random();
+    private static final Map<Color, Palette> palettes = new ConcurrentHashMap<>();
+
+    /**
+     * The pre-jittered colors around a base color, and their shared renderables.
+     */
+    private static final class Palette {
+        private final Color[] colors = new Color[PALETTE_SIZE];
+        private final RectangleRenderable[] renderables = new RectangleRenderable[PALETTE_SIZE];
+
+        /**
+         * Constructs the palette of a base color.
+         * The palette is seeded by the base color, so it is the same in every run.
+         *
+         * @param baseColor The color the palette approximates.
+         */
+        private Palette(Color baseColor) {
+            Random rand = new Random(baseColor.getRGB());
+            for (int i = 0; i < PALETTE_SIZE; i++) {
+                colors[i] = approximateColor(baseColor, DEFAULT_COLOR_DELTA, rand);
+                renderables[i] = new RectangleRenderable(colors[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a color from the shared palette around baseColor.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param index The palette index, in [0, {@link #PALETTE_SIZE}).
+     * @return A shared color similar to baseColor.
+     */
+    public static Color paletteColor(Color baseColor, int index) {
+        return palette(baseColor).colors[index];
+    }
+
+    /**
+     * Returns the shared rectangle renderable of a color from the palette around baseColor.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param index The palette index, in [0, {@link #PALETTE_SIZE}).
+     * @return A shared renderable, filled with a color similar to baseColor.
+     */
+    public static RectangleRenderable paletteRenderable(Color baseColor, int index) {
+        return palette(baseColor).renderables[index];
+    }
+
+    /**
+     * Returns the palette around baseColor, creating it on first use.
+     * Palettes are keyed by the color itself, so a lookup allocates nothing.
+     *
+     * @param baseColor The color the palette approximates.
+     * @return The shared palette.
+     */
+    private static Palette palette(Color baseColor) {
+        return palettes.computeIfAbsent(baseColor, Palette::new);
+    }
 
     /**
      * Returns a color similar to baseColor, with a default delta.
@@ -31,7 +96,7 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateMonoColor(Color baseColor, int colorDelta){
-        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta);
+        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, random);
         return new Color(channel, channel, channel);
     }
 
@@ -57,11 +122,36 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateColor(Color baseColor, int colorDelta) {
+        return approximateColor(baseColor, colorDelta, random);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta, drawn from the given random generator.
+     * A seeded generator makes the returned color reproducible.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param rand The random generator to sample the color with.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, Random rand) {
+        return approximateColor(baseColor, DEFAULT_COLOR_DELTA, rand);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta,
+     * drawn from the given random generator.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param rand The random generator to sample the color with.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, Random rand) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, rand),
+                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta, rand),
+                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta, rand));
     }
 
     /**
@@ -69,10 +159,11 @@ public final class ColorSupplier {
      *
      * @param min The lower bound of the given range.
      * @param max The upper bound of the given range.
+     * @param rand The random generator to sample the channel with.
      * @return A random number in the range [min, max], clipped to [0,255].
      */
-    private static int randomChannelInRange(int min, int max) {
-        int channel = random.nextInt(max-min+1) + min;
+    private static int randomChannelInRange(int min, int max, Random rand) {
+        int channel = rand.nextInt(max-min+1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
 }
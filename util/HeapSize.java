@@ -0,0 +1,62 @@
+package pepse.util;
+
+/**
+ * Estimates the heap footprint of objects and arrays, as laid out by a 64-bit HotSpot JVM with
+ * compressed object pointers: 12-byte object headers, 16-byte array headers, 4-byte references,
+ * and every object padded to a multiple of 8 bytes.
+ */
+public final class HeapSize {
+
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * Not instantiable.
+     */
+    private HeapSize() {
+    }
+
+    /**
+     * Returns the footprint of an object, not counting the objects it refers to.
+     *
+     * @param referenceFields The number of reference fields of the object.
+     * @param primitiveBytes  The total size of the object's primitive fields, in bytes.
+     * @return The object's estimated size, in bytes.
+     */
+    public static long object(int referenceFields, int primitiveBytes) {
+        return align(OBJECT_HEADER_BYTES + (long) referenceFields * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * Returns the footprint of an array of primitives.
+     *
+     * @param length       The array's length.
+     * @param elementBytes The size of an element, in bytes.
+     * @return The array's estimated size, in bytes.
+     */
+    public static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    /**
+     * Returns the footprint of an array of references, not counting the objects it refers to.
+     *
+     * @param length The array's length.
+     * @return The array's estimated size, in bytes.
+     */
+    public static long referenceArray(int length) {
+        return array(length, REFERENCE_BYTES);
+    }
+
+    /**
+     * Rounds a size up to the object alignment.
+     *
+     * @param bytes The unpadded size, in bytes.
+     * @return The padded size, in bytes.
+     */
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
@@ -0,0 +1,84 @@
+package pepse.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ * A pool of released objects of one kind, kept to be reused instead of constructing new ones.
+ * <p>
+ * The pool only stores objects; the code that takes an object out is responsible for resetting it,
+ * and the code that puts one back, for making sure nothing else still uses it. Recycled objects only
+ * become available once {@link #reclaim()} is called, once per frame, so that an object removed from
+ * the game object collection is not added back to it in the same frame. The pool grows to the
+ * largest number of objects released at once, which stays bounded when objects are released as fast as
+ * they are reused, for example as chunks are detached behind the avatar and attached ahead of it.
+ * Meant to be used from the game thread only.
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private final ArrayDeque<T> recycled = new ArrayDeque<>();
+    private long reused = 0;
+
+    /**
+     * Takes an object out of the pool.
+     *
+     * @return A released object, to be reset by the caller, or null if the pool is empty.
+     */
+    public T poll() {
+        T object = free.poll();
+        if (object != null)
+            reused++;
+        return object;
+    }
+
+    /**
+     * Puts a released object in the pool, to be available from the next {@link #reclaim()}.
+     *
+     * @param object The object, which nothing may use any more.
+     */
+    public void recycle(T object) {
+        recycled.push(object);
+    }
+
+    /**
+     * Puts released objects in the pool, to be available from the next {@link #reclaim()}.
+     *
+     * @param objects The objects, which nothing may use any more.
+     */
+    public void recycleAll(Collection<? extends T> objects) {
+        for (T object : objects) {
+            recycled.push(object);
+        }
+    }
+
+    /**
+     * Makes the objects recycled since the last call available to {@link #poll()}.
+     * Called once per frame, before any object is taken out of the pool.
+     */
+    public void reclaim() {
+        while (!recycled.isEmpty()) {
+            free.push(recycled.pop());
+        }
+    }
+
+    /**
+     * Returns the number of objects available in the pool.
+     *
+     * @return The pool size.
+     */
+    public int size() {
+        return free.size();
+    }
+
+    /**
+     * Returns the number of objects taken out of the pool so far, that is, not constructed anew.
+     *
+     * @return The reuse count.
+     */
+    public long getReused() {
+        return reused;
+    }
+}
@@ -0,0 +1,51 @@
+package pepse.util;
+
+/**
+ * Derives independent, well-mixed seeds from the world seed.
+ * <p>
+ * Used to make procedural generation a pure function of the world seed and a position, so that
+ * any part of the world can be regenerated identically, in any order and on any thread.
+ */
+public final class SeedHasher {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SeedHasher() {
+    }
+
+    /**
+     * Returns a seed derived from a base seed and a key, such as a column index or a chunk id.
+     *
+     * @param seed The base seed.
+     * @param key  The key to derive a seed for.
+     * @return A seed that depends on both the base seed and the key.
+     */
+    public static long hash(long seed, long key) {
+        return mix(seed + GOLDEN_GAMMA * (key + 1));
+    }
+
+    /**
+     * Returns a seed derived from a base seed, a key and a salt.
+     * Different salts give independent seeds for the same key, for example one per generation stage.
+     *
+     * @param seed The base seed.
+     * @param key  The key to derive a seed for.
+     * @param salt A constant that distinguishes the purpose of the seed.
+     * @return A seed that depends on the base seed, the key and the salt.
+     */
+    public static long hash(long seed, long key, long salt) {
+        return hash(hash(seed, salt), key);
+    }
+
+    /**
+     * The SplitMix64 finalizer, spreading every input bit over the whole output.
+     *
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
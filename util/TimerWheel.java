@@ -0,0 +1,155 @@
+package pepse.util;
+
+/**
+ * A hashed timer wheel: a world clock, and tasks scheduled to run when it reaches their deadlines.
+ * <p>
+ * Time is divided into ticks, and the wheel into a fixed number of slots, each holding a list of the timers
+ * whose deadline tick maps to it. Scheduling a timer costs one list insertion, and advancing the clock
+ * visits only the slots of the elapsed ticks, so timers cost nothing until they fire, however many are
+ * pending. Deadlines further away than one turn of the wheel wait in their slot for more turns.
+ * <p>
+ * Deadlines are absolute times on the wheel's clock, so they stay valid for whoever stores them, for example
+ * in saved data, and can be scheduled again after a restart by resuming the clock where it stopped.
+ * Timers can be scheduled from any thread; the clock is advanced, and tasks run, on the game thread.
+ */
+public class TimerWheel {
+
+    /**
+     * A scheduled task, linked to the next timer in its slot.
+     */
+    private static class Timer {
+        private final long deadlineTick;
+        private final Runnable task;
+        private Timer next;
+
+        /**
+         * Constructs a Timer.
+         *
+         * @param deadlineTick The tick at which the task runs.
+         * @param task         The task to run.
+         * @param next         The next timer in the slot.
+         */
+        Timer(long deadlineTick, Runnable task, Timer next) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+            this.next = next;
+        }
+    }
+
+    private final double tickSeconds;
+    private final Timer[] slots;
+    private volatile double now;
+    private long currentTick;
+    private int pending = 0;
+
+    /**
+     * Constructs an empty TimerWheel.
+     *
+     * @param startTime   The initial time of the clock, in seconds.
+     * @param tickSeconds The duration of a tick, in seconds; timers fire at most this late.
+     * @param slotCount   The number of slots; one turn of the wheel lasts this many ticks.
+     */
+    public TimerWheel(double startTime, double tickSeconds, int slotCount) {
+        this.tickSeconds = tickSeconds;
+        this.slots = new Timer[slotCount];
+        this.now = startTime;
+        this.currentTick = (long) Math.floor(startTime / tickSeconds);
+    }
+
+    /**
+     * Returns the current time of the clock.
+     *
+     * @return The time, in seconds.
+     */
+    public double now() {
+        return now;
+    }
+
+    /**
+     * Returns the number of timers that have not fired yet.
+     *
+     * @return The pending timer count.
+     */
+    public synchronized int getPending() {
+        return pending;
+    }
+
+    /**
+     * Schedules a task to run when the clock reaches a deadline.
+     * A deadline that already passed runs on the next tick.
+     *
+     * @param deadline The time at which to run the task, in seconds.
+     * @param task     The task to run, on the thread that advances the clock.
+     */
+    public synchronized void schedule(double deadline, Runnable task) {
+        long deadlineTick = Math.max(currentTick + 1, (long) Math.ceil(deadline / tickSeconds));
+        int slot = slot(deadlineTick);
+        slots[slot] = new Timer(deadlineTick, task, slots[slot]);
+        pending++;
+    }
+
+    /**
+     * Advances the clock, and runs the tasks of every timer whose deadline was reached.
+     * Each elapsed tick's slot is visited once; if more than a whole turn elapsed, every slot is visited once.
+     *
+     * @param deltaTime Time elapsed since last frame in seconds.
+     * @return The number of tasks that ran.
+     */
+    public int advance(float deltaTime) {
+        Timer due = null;
+        synchronized (this) {
+            now += deltaTime;
+            long targetTick = (long) Math.floor(now / tickSeconds);
+            long visitedTicks = Math.min(targetTick - currentTick, slots.length);
+            for (long tick = currentTick + 1; tick <= currentTick + visitedTicks; tick++) {
+                due = collectDue(slot(tick), targetTick, due);
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        }
+        int fired = 0;
+        for (; due != null; due = due.next) {
+            due.task.run();
+            fired++;
+        }
+        return fired;
+    }
+
+    /**
+     * Unlinks the timers of a slot that are due, and links them in front of the already collected ones.
+     *
+     * @param slot       The slot to visit.
+     * @param targetTick The tick the clock advances to.
+     * @param due        The timers collected so far.
+     * @return All the collected timers.
+     */
+    private Timer collectDue(int slot, long targetTick, Timer due) {
+        Timer previous = null;
+        Timer timer = slots[slot];
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.deadlineTick <= targetTick) {
+                if (previous == null)
+                    slots[slot] = next;
+                else
+                    previous.next = next;
+                timer.next = due;
+                due = timer;
+                pending--;
+            } else {
+                previous = timer;
+            }
+            timer = next;
+        }
+        return due;
+    }
+
+    /**
+     * Returns the slot a tick maps to.
+     *
+     * @param tick The tick.
+     * @return The slot index.
+     */
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
@@ -35,16 +35,18 @@ public class Avatar extends GameObject {
      * @param topLeftCorner Position of the object, in window coordinates (pixels).
      *                      Note that (0,0) is the top-left corner of the window.
      * @param inputListener
-     * @param imageReader
+     * @param imageReader   Used to read the avatar's images, or null to run without any,
+     *                      as in a headless simulation.
      */
     public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
 
-        super(topLeftCorner, Vector2.ONES.mult(50), imageReader.readImage("./assets/idle_0.png",
-                false));
+        super(topLeftCorner, Vector2.ONES.mult(50), imageReader == null ? null :
+                imageReader.readImage("./assets/idle_0.png", false));
         Avatar.inputListener = inputListener;
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         transform().setAccelerationY(GRAVITY);
-        initAnimations(imageReader);
+        if (imageReader != null)
+            initAnimations(imageReader);
         this.setTag("avatar");
     }
 
@@ -167,8 +169,8 @@ public class Avatar extends GameObject {
     /**
      * Handles collision events with other game objects.
      * <p>
-     * - Colliding with "ground" stops vertical movement.
      * - Colliding with "fruit" increases energy and disables the fruit.
+     * Collisions with the ground are resolved by the {@link HeightfieldCollider}.
      *
      * @param other     The other GameObject involved in the collision.
      * @param collision The Collision object containing collision details.
@@ -177,10 +179,6 @@ public class Avatar extends GameObject {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
 
-        if (other.getTag().equals("ground")){
-            this.transform().setVelocityY(0);
-        }
-
         if (other.getTag().equals("fruit")){
             other.setTag("disabledFruit");
             changeEnergy(10);
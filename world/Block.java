@@ -4,12 +4,14 @@ import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.ObjectPool;
 
 /**
  * A basic building block of the terrain or world.
  * <p>
  * Blocks are square immovable objects used to construct the ground, tree trunks, leaves,
- * and other static elements in the game world.
+ * and other static elements in the game world. Blocks of detached chunks can be recycled through
+ * an {@link ObjectPool} and reused with a new position, size and renderable.
  */
 public class Block extends GameObject {
 
@@ -30,4 +32,37 @@ public class Block extends GameObject {
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
     }
+
+    /**
+     * Returns a block from a pool, reset to the given position, size and renderable,
+     * or a new block if the pool is empty.
+     *
+     * @param pool          The pool of released blocks of the same kind.
+     * @param topLeftCorner Position of the block, in window coordinates (pixels).
+     * @param dimensions    Width and height in window coordinates.
+     * @param renderable    The renderable representing the block.
+     * @return The block. Its tag and physics are left as they were when it was released.
+     */
+    public static Block obtain(ObjectPool<Block> pool, Vector2 topLeftCorner, Vector2 dimensions,
+                               Renderable renderable) {
+        Block block = pool.poll();
+        if (block == null)
+            return new Block(topLeftCorner, dimensions, renderable);
+        block.reuse(topLeftCorner, dimensions, renderable);
+        return block;
+    }
+
+    /**
+     * Resets a released block to a new position, size and renderable, and clears its rotation.
+     *
+     * @param topLeftCorner Position of the block, in window coordinates (pixels).
+     * @param dimensions    Width and height in window coordinates.
+     * @param renderable    The renderable representing the block.
+     */
+    public void reuse(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        setTopLeftCorner(topLeftCorner);
+        setDimensions(dimensions);
+        renderer().setRenderable(renderable);
+        renderer().setRenderableAngle(0);
+    }
 }
@@ -2,10 +2,10 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
-import pepse.PepseGameManager;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
 import pepse.util.ColorSupplier;
 import java.awt.*;
 import java.util.ArrayList;
@@ -19,12 +19,10 @@ import java.util.Random;
  */
 public class Cloud extends GameObject {
 
-    private static final float GRAVITY = 600;
     private static final int CLOUD_VELOCITY = 100;
-    private static final int RAIN_DROP_SIZE = 10;
-    private static final String RAIN_TAG = "rain";
     private static Random random = new Random();
     private final Vector2 windowDimensions;
+    private final RainParticles rain;
     private final List<Block> cloudBlocks = new ArrayList<>();
 
     List<List<Integer>> cloud = List.of(
@@ -37,16 +35,17 @@ public class Cloud extends GameObject {
     );
 
     private static final Color BASE_CLOUD_COLOR = new Color(255, 255, 255);
-    private static final Color BASE_RAIN_DROP_COLOR = Color.CYAN;
 
     /**
      * Constructs a Cloud instance that moves horizontally and can produce rain drops.
      *
      * @param windowDimensions The dimensions of the game window, used for boundary checks.
+     * @param rain             The particle system the cloud's rain drops are spawned into.
      */
-    public Cloud(Vector2 windowDimensions) {
+    public Cloud(Vector2 windowDimensions, RainParticles rain) {
         super(Vector2.ZERO, Vector2.ONES, null);
         this.windowDimensions = windowDimensions;
+        this.rain = rain;
     }
 
     /**
@@ -61,8 +60,8 @@ public class Cloud extends GameObject {
         for (int i = 0; i < cloud.size(); i++) {
             for (int j = 0; j < cloud.get(0).size(); j++) {
                 if (cloud.get(i).get(j) == 1) {
-                    RectangleRenderable rect =
-                            new RectangleRenderable(ColorSupplier.approximateColor(BASE_CLOUD_COLOR));
+                    RectangleRenderable rect = ColorSupplier.paletteRenderable(BASE_CLOUD_COLOR,
+                            random.nextInt(ColorSupplier.PALETTE_SIZE));
                     Block block = new Block(new Vector2(startPos.x() +
                             (j * Block.SIZE), startPos.y() + (i * Block.SIZE)),
                             new Vector2(Block.SIZE, Block.SIZE), rect);
@@ -116,39 +115,18 @@ public class Cloud extends GameObject {
 
     /**
      * Creates rain drops falling from the cloud blocks with some randomness.
-     * Rain drops fall downward with gravity applied and fade out before removal.
-     *
-     * @return A list of rain drop blocks created during this update.
+     * Rain drops are spawned into the rain particle system, which makes them fall and fade out.
      */
-    public List<Block> rain(){
-    List<Block> rainBlocks = new ArrayList<>();
+    public void rain(){
+        long start = System.nanoTime();
         for (Block block : cloudBlocks) {
 
             if(random.nextInt(10) > 2)
                 continue;
 
-            RectangleRenderable rect =
-                    new RectangleRenderable(ColorSupplier.approximateColor(BASE_RAIN_DROP_COLOR));
-            Block rainDrop = new Block(block.getTopLeftCorner(),
-                    new Vector2(RAIN_DROP_SIZE, RAIN_DROP_SIZE),
-                    rect);
-            rainDrop.transform().setAccelerationY(GRAVITY);
-            rainDrop.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-            rainDrop.setTag(RAIN_TAG);
-
-            new Transition<Float>(
-                    rainDrop,
-                    (Float f) -> rainDrop.renderer().setOpaqueness(f),
-                    1f,
-                    0f,
-                    Transition.LINEAR_INTERPOLATOR_FLOAT,
-                    2,
-                    Transition.TransitionType.TRANSITION_ONCE,
-                    () -> rainDrop.setTag(PepseGameManager.OBJECT_REMOVE_TAG)
-            );
-            rainBlocks.add(rainDrop);
+            rain.spawn(block.getTopLeftCorner(), random.nextInt(ColorSupplier.PALETTE_SIZE));
         }
-        return rainBlocks;
+        Metrics.record(Subsystem.RAIN, start);
     }
 
 
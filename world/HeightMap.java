@@ -0,0 +1,104 @@
+package pepse.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the terrain's ground heights, keyed by chunk id.
+ * <p>
+ * The ground height of every block column of a chunk is sampled in one batch the first time any of them
+ * is needed, and kept in a primitive array, so later lookups cost no noise evaluation. At most a fixed
+ * number of chunks are kept, evicting the least recently used one, and a chunk's heights are dropped
+ * when the game drops the chunk itself. Thread safe, so chunks can be generated in the background.
+ */
+public class HeightMap {
+
+    private final Terrain terrain;
+    private final int chunkLength;
+    private final int maxChunks;
+    private final Map<Integer, float[]> chunkHeights;
+
+    /**
+     * Constructs an empty HeightMap.
+     *
+     * @param terrain     The terrain whose ground heights are cached.
+     * @param chunkLength The width of a chunk, in pixels.
+     * @param maxChunks   The maximal number of chunks whose heights are kept at once.
+     */
+    public HeightMap(Terrain terrain, int chunkLength, int maxChunks) {
+        this.terrain = terrain;
+        this.chunkLength = chunkLength;
+        this.maxChunks = maxChunks;
+        this.chunkHeights = new LinkedHashMap<>(maxChunks, 0.75f, true);
+    }
+
+    /**
+     * Returns the ground height of the block column containing an x-coordinate, as sampled at the
+     * column's left edge. At column edges, this equals {@link Terrain#groundHeightAt(float)}.
+     *
+     * @param x The x-coordinate to query.
+     * @return The y-coordinate of the ground surface of the column containing x.
+     */
+    public float groundHeightAt(float x) {
+        int column = (int) Math.floor(x / Block.SIZE);
+        int chunkId = Math.floorDiv(column * Block.SIZE, chunkLength);
+        return getChunkHeights(chunkId)[column - getFirstColumn(chunkId)];
+    }
+
+    /**
+     * Returns the ground heights of a chunk's block columns, sampling them if they are not cached.
+     * The columns of a chunk are those whose left edge lies within the chunk, as in
+     * {@link Terrain#generateColumns(int, int)}.
+     *
+     * @param chunkId The id number of the chunk.
+     * @return The ground height of every column of the chunk, from left to right. Must not be modified.
+     */
+    public float[] getChunkHeights(int chunkId) {
+        synchronized (chunkHeights) {
+            float[] heights = chunkHeights.get(chunkId);
+            if (heights != null)
+                return heights;
+        }
+        int firstColumn = getFirstColumn(chunkId);
+        float[] heights = new float[getFirstColumn(chunkId + 1) - firstColumn];
+        terrain.sampleGroundHeights(firstColumn, heights);
+        synchronized (chunkHeights) {
+            chunkHeights.put(chunkId, heights);
+            if (chunkHeights.size() > maxChunks)
+                chunkHeights.remove(chunkHeights.keySet().iterator().next());
+        }
+        return heights;
+    }
+
+    /**
+     * Returns the first block column of a chunk.
+     *
+     * @param chunkId The id number of the chunk.
+     * @return The index of the chunk's leftmost column.
+     */
+    public int getFirstColumn(int chunkId) {
+        return Math.floorDiv(chunkId * chunkLength + Block.SIZE - 1, Block.SIZE);
+    }
+
+    /**
+     * Drops the cached heights of a chunk, when the chunk itself is dropped.
+     *
+     * @param chunkId The id number of the chunk.
+     */
+    public void evict(int chunkId) {
+        synchronized (chunkHeights) {
+            chunkHeights.remove(chunkId);
+        }
+    }
+
+    /**
+     * Returns the number of chunks whose heights are cached.
+     *
+     * @return The cached chunk count.
+     */
+    public int size() {
+        synchronized (chunkHeights) {
+            return chunkHeights.size();
+        }
+    }
+}
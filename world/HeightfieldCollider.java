@@ -0,0 +1,136 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves collisions between moving game objects and the terrain, using the terrain's height map
+ * instead of its blocks.
+ * <p>
+ * Every frame, after the engine has moved the objects, each registered object is checked against the
+ * tops of the few block columns under it, in constant time. An object that sank into the ground is put
+ * back on top of it and stops falling. A column rising well above the object's feet acts as a wall, and
+ * pushes the object out sideways. This lets terrain blocks be visual only, so the engine's collision pass
+ * no longer grows with the number of loaded terrain blocks.
+ */
+public class HeightfieldCollider {
+
+    private static final float STEP_TOLERANCE = Block.SIZE / 2f;
+
+    private final HeightMap heightMap;
+    private final List<GameObject> bodies = new ArrayList<>();
+
+    /**
+     * Constructs a HeightfieldCollider with no registered objects.
+     *
+     * @param heightMap The ground heights of the terrain.
+     */
+    public HeightfieldCollider(HeightMap heightMap) {
+        this.heightMap = heightMap;
+    }
+
+    /**
+     * Starts resolving an object's collisions with the ground.
+     *
+     * @param body The object to keep above the ground.
+     */
+    public void add(GameObject body) {
+        bodies.add(body);
+    }
+
+    /**
+     * Stops resolving an object's collisions with the ground.
+     *
+     * @param body The object to stop keeping above the ground.
+     */
+    public void remove(GameObject body) {
+        bodies.remove(body);
+    }
+
+    /**
+     * Returns the top of the ground block at an x-coordinate, which is where objects stand.
+     *
+     * @param x The x-coordinate to query.
+     * @return The y-coordinate of the top of the ground's highest block at x.
+     */
+    public float groundTopAt(float x) {
+        return (float) Math.floor(heightMap.groundHeightAt(x) / Block.SIZE) * Block.SIZE;
+    }
+
+    /**
+     * Resolves the collisions of every registered object with the ground.
+     * Must be called after the objects moved in the current frame.
+     *
+     * @param deltaTime Time elapsed since last frame in seconds.
+     */
+    public void update(float deltaTime) {
+        for (GameObject body : bodies) {
+            resolve(body, deltaTime);
+        }
+    }
+
+    /**
+     * Pushes an object out of the walls it walked into, then puts it back on top of the ground
+     * if it sank into it.
+     * The object may have sunk by as much as it fell this frame, plus a step tolerance,
+     * before a column counts as a wall rather than as ground.
+     *
+     * @param body      The object to resolve.
+     * @param deltaTime Time elapsed since last frame in seconds.
+     */
+    private void resolve(GameObject body, float deltaTime) {
+        Vector2 topLeft = body.getTopLeftCorner();
+        Vector2 dimensions = body.getDimensions();
+        float bottom = topLeft.y() + dimensions.y();
+        float wallTop = bottom - STEP_TOLERANCE - Math.max(0, body.getVelocity().y()) * deltaTime;
+
+        float left = topLeft.x();
+        float center = left + dimensions.x() / 2;
+        for (int column = firstColumn(left); column <= lastColumn(left, dimensions.x()); column++) {
+            if (groundTopAt(column * Block.SIZE) >= wallTop)
+                continue;
+            if (column * Block.SIZE + Block.SIZE / 2f > center)
+                left = Math.min(left, column * Block.SIZE - dimensions.x());
+            else
+                left = Math.max(left, (column + 1) * Block.SIZE);
+        }
+
+        float groundTop = Float.POSITIVE_INFINITY;
+        for (int column = firstColumn(left); column <= lastColumn(left, dimensions.x()); column++) {
+            float columnTop = groundTopAt(column * Block.SIZE);
+            if (columnTop >= wallTop)
+                groundTop = Math.min(groundTop, columnTop);
+        }
+
+        if (bottom > groundTop) {
+            body.setTopLeftCorner(new Vector2(left, groundTop - dimensions.y()));
+            if (body.getVelocity().y() > 0)
+                body.transform().setVelocityY(0);
+        } else if (left != topLeft.x()) {
+            body.setTopLeftCorner(new Vector2(left, topLeft.y()));
+        }
+    }
+
+    /**
+     * Returns the leftmost block column under a horizontal span.
+     *
+     * @param left The span's left edge.
+     * @return The column's index.
+     */
+    private static int firstColumn(float left) {
+        return (int) Math.floor(left / Block.SIZE);
+    }
+
+    /**
+     * Returns the rightmost block column under a horizontal span.
+     *
+     * @param left  The span's left edge.
+     * @param width The span's width.
+     * @return The column's index.
+     */
+    private static int lastColumn(float left, float width) {
+        return (int) Math.ceil((left + width) / Block.SIZE) - 1;
+    }
+}
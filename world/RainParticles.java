@@ -0,0 +1,170 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import java.awt.*;
+import java.util.function.Supplier;
+
+/**
+ * A fixed-capacity particle system simulating all rain drops through a single game object.
+ * <p>
+ * Every drop is a slot in a set of primitive arrays holding its position, velocity, age and color,
+ * updated in one loop and drawn through one batched renderable. Drops live in world coordinates and
+ * die when they reach the ground or fade out, freeing their slot for a new drop. When all slots are
+ * taken, new drops are not spawned, so rapid jumping allocates nothing and costs a bounded amount of work.
+ */
+public class RainParticles extends GameObject {
+
+    private static final float GRAVITY = 600;
+    private static final float FADE_TIME = 2;
+    private static final int RAIN_DROP_SIZE = 10;
+    private static final int OPACITY_LEVELS = 16;
+    private static final String RAIN_TAG = "rain";
+    private static final Color BASE_RAIN_DROP_COLOR = Color.CYAN;
+
+    private final HeightfieldCollider ground;
+    private final Supplier<Vector2> viewTopLeft;
+    private final Color[][] fadedColors;
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityY;
+    private final float[] groundY;
+    private final float[] age;
+    private final byte[] colorIndex;
+    private int count = 0;
+
+    /**
+     * Constructs a RainParticles instance covering the window.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param capacity         The maximal number of drops alive at once.
+     * @param ground           The collider of the terrain drops fall onto.
+     * @param viewTopLeft      Supplies the world position of the window's top-left corner.
+     */
+    public RainParticles(Vector2 windowDimensions, int capacity,
+                         HeightfieldCollider ground, Supplier<Vector2> viewTopLeft) {
+        super(Vector2.ZERO, windowDimensions, null);
+        this.ground = ground;
+        this.viewTopLeft = viewTopLeft;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.groundY = new float[capacity];
+        this.age = new float[capacity];
+        this.colorIndex = new byte[capacity];
+        this.fadedColors = new Color[ColorSupplier.PALETTE_SIZE][OPACITY_LEVELS + 1];
+        for (int i = 0; i < ColorSupplier.PALETTE_SIZE; i++) {
+            Color color = ColorSupplier.paletteColor(BASE_RAIN_DROP_COLOR, i);
+            for (int level = 0; level <= OPACITY_LEVELS; level++) {
+                fadedColors[i][level] = new Color(color.getRed(), color.getGreen(),
+                        color.getBlue(), 255 * level / OPACITY_LEVELS);
+            }
+        }
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag(RAIN_TAG);
+        renderer().setRenderable(this::renderDrops);
+    }
+
+    /**
+     * Spawns a drop at a window position, if a slot is free.
+     * The top of the ground block under the drop is looked up once, since drops fall straight down.
+     *
+     * @param screenPosition The drop's top-left corner, in window coordinates.
+     * @param color          The drop's palette color index, in [0, {@link ColorSupplier#PALETTE_SIZE}).
+     * @return true if the drop was spawned, false if all slots are taken.
+     */
+    public boolean spawn(Vector2 screenPosition, int color) {
+        if (count == x.length)
+            return false;
+        Vector2 view = viewTopLeft.get();
+        x[count] = screenPosition.x() + view.x();
+        y[count] = screenPosition.y() + view.y();
+        velocityY[count] = 0;
+        groundY[count] = ground.groundTopAt(x[count]);
+        age[count] = 0;
+        colorIndex[count] = (byte) color;
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns the number of drops currently alive.
+     *
+     * @return The drop count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Rain drops pass through everything.
+     *
+     * @param other The other GameObject.
+     * @return false.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+
+    /**
+     * Moves and ages every drop, and frees the slots of drops that reached the ground or faded out.
+     *
+     * @param deltaTime Time elapsed since last frame in seconds.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        int i = 0;
+        while (i < count) {
+            velocityY[i] += GRAVITY * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+            age[i] += deltaTime;
+            if (age[i] >= FADE_TIME || y[i] + RAIN_DROP_SIZE >= groundY[i])
+                free(i);
+            else
+                i++;
+        }
+    }
+
+    /**
+     * Frees a drop's slot by moving the last alive drop into it.
+     *
+     * @param i The slot to free.
+     */
+    private void free(int i) {
+        count--;
+        x[i] = x[count];
+        y[i] = y[count];
+        velocityY[i] = velocityY[count];
+        groundY[i] = groundY[count];
+        age[i] = age[count];
+        colorIndex[i] = colorIndex[count];
+    }
+
+    /**
+     * Draws all alive drops, faded by their age.
+     *
+     * @param g                       The graphics context to draw with.
+     * @param topLeftCorner           The window position of this object's top-left corner.
+     * @param dimensions              Ignored.
+     * @param degreesCounterClockwise Ignored.
+     * @param isFlippedHorizontally   Ignored.
+     * @param isFlippedVertically     Ignored.
+     * @param opaqueness              Ignored; every drop has its own opacity.
+     */
+    private void renderDrops(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        Vector2 view = viewTopLeft.get();
+        float offsetX = topLeftCorner.x() - view.x();
+        float offsetY = topLeftCorner.y() - view.y();
+        for (int i = 0; i < count; i++) {
+            int level = (int) (OPACITY_LEVELS * (1 - age[i] / FADE_TIME));
+            g.setColor(fadedColors[colorIndex[i]][Math.max(0, level)]);
+            g.fillRect((int) (x[i] + offsetX), (int) (y[i] + offsetY), RAIN_DROP_SIZE, RAIN_DROP_SIZE);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A uniform grid of square cells indexing static game objects by the cells their bounds overlap.
+ * <p>
+ * Lets collision and proximity queries consider only the objects near a region, instead of every
+ * loaded object. Objects are indexed with the bounds they have when added, so they must not move while
+ * indexed. Meant to be used from the game thread only.
+ * <p>
+ * Cells are kept in an open-addressing table keyed by the packed cell coordinates as a primitive long,
+ * with linear probing, and cells that become empty are deleted by shifting back the cells probed after them.
+ * Their object lists are kept for reuse, so adding, removing and querying allocate nothing once the table
+ * has grown to the size of the loaded world.
+ */
+public class SpatialHash {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final float cellSize;
+    private final ArrayDeque<List<GameObject>> freeCellLists = new ArrayDeque<>();
+    private long[] cellKeys = new long[INITIAL_CAPACITY];
+    private List<GameObject>[] cellObjects = newCellArray(INITIAL_CAPACITY);
+    private int cellCount = 0;
+    private int size = 0;
+
+    /**
+     * Constructs an empty SpatialHash.
+     *
+     * @param cellSize The side length of a cell, in pixels.
+     */
+    public SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Indexes an object in every cell its bounds overlap.
+     *
+     * @param gameObject The object to index.
+     */
+    public void add(GameObject gameObject) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        for (int cellX = cell(topLeft.x()); cellX <= lastCell(topLeft.x(), dimensions.x()); cellX++) {
+            for (int cellY = cell(topLeft.y()); cellY <= lastCell(topLeft.y(), dimensions.y()); cellY++) {
+                int slot = findOrInsert(key(cellX, cellY));
+                cellObjects[slot].add(gameObject);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Removes an object from every cell it was indexed in.
+     *
+     * @param gameObject The object to remove.
+     */
+    public void remove(GameObject gameObject) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        for (int cellX = cell(topLeft.x()); cellX <= lastCell(topLeft.x(), dimensions.x()); cellX++) {
+            for (int cellY = cell(topLeft.y()); cellY <= lastCell(topLeft.y(), dimensions.y()); cellY++) {
+                int slot = find(key(cellX, cellY));
+                if (slot < 0)
+                    continue;
+                List<GameObject> objects = cellObjects[slot];
+                objects.remove(gameObject);
+                if (objects.isEmpty())
+                    delete(slot);
+            }
+        }
+        size--;
+    }
+
+    /**
+     * Collects the objects indexed in the cells a region overlaps, each once.
+     * The objects are only candidates: their bounds are not checked against the region.
+     *
+     * @param topLeft    The region's top-left corner.
+     * @param dimensions The region's dimensions.
+     * @param candidates The list to fill with the candidates. Cleared first.
+     */
+    public void query(Vector2 topLeft, Vector2 dimensions, List<GameObject> candidates) {
+        candidates.clear();
+        for (int cellX = cell(topLeft.x()); cellX <= lastCell(topLeft.x(), dimensions.x()); cellX++) {
+            for (int cellY = cell(topLeft.y()); cellY <= lastCell(topLeft.y(), dimensions.y()); cellY++) {
+                int slot = find(key(cellX, cellY));
+                if (slot < 0)
+                    continue;
+                List<GameObject> objects = cellObjects[slot];
+                for (int i = 0; i < objects.size(); i++) {
+                    GameObject gameObject = objects.get(i);
+                    if (!candidates.contains(gameObject))
+                        candidates.add(gameObject);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed objects.
+     *
+     * @return The indexed object count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the table slot of a cell.
+     *
+     * @param key The cell's key.
+     * @return The slot, or -1 if the cell holds no objects.
+     */
+    private int find(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = home(key, mask); cellObjects[slot] != null; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key)
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the table slot of a cell, inserting the cell with an empty object list if it is not in the table.
+     *
+     * @param key The cell's key.
+     * @return The cell's slot.
+     */
+    private int findOrInsert(long key) {
+        if (2 * (cellCount + 1) > cellKeys.length)
+            resize(2 * cellKeys.length);
+        int mask = cellKeys.length - 1;
+        int slot = home(key, mask);
+        for (; cellObjects[slot] != null; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key)
+                return slot;
+        }
+        List<GameObject> objects = freeCellLists.poll();
+        cellKeys[slot] = key;
+        cellObjects[slot] = objects != null ? objects : new ArrayList<>();
+        cellCount++;
+        return slot;
+    }
+
+    /**
+     * Deletes an empty cell from the table, keeping its object list for reuse, and shifts back the cells
+     * probed after it, so that every cell stays reachable from its home slot.
+     *
+     * @param slot The empty cell's slot.
+     */
+    private void delete(int slot) {
+        freeCellLists.push(cellObjects[slot]);
+        cellObjects[slot] = null;
+        cellCount--;
+        int mask = cellKeys.length - 1;
+        int hole = slot;
+        for (int next = (slot + 1) & mask; cellObjects[next] != null; next = (next + 1) & mask) {
+            int home = home(cellKeys[next], mask);
+            boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (reachable)
+                continue;
+            cellKeys[hole] = cellKeys[next];
+            cellObjects[hole] = cellObjects[next];
+            cellObjects[next] = null;
+            hole = next;
+        }
+    }
+
+    /**
+     * Moves all cells to a table of a new capacity.
+     *
+     * @param capacity The new capacity, a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = cellKeys;
+        List<GameObject>[] oldObjects = cellObjects;
+        cellKeys = new long[capacity];
+        cellObjects = newCellArray(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldObjects[i] == null)
+                continue;
+            int slot = home(oldKeys[i], mask);
+            while (cellObjects[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            cellKeys[slot] = oldKeys[i];
+            cellObjects[slot] = oldObjects[i];
+        }
+    }
+
+    /**
+     * Returns the slot a cell is probed from.
+     *
+     * @param key  The cell's key.
+     * @param mask The table capacity minus one.
+     * @return The cell's home slot.
+     */
+    private static int home(long key, int mask) {
+        long hash = key * HASH_MULTIPLIER;
+        return (int) (hash >>> Integer.SIZE) & mask;
+    }
+
+    /**
+     * Creates an empty array of cell object lists.
+     *
+     * @param capacity The array length.
+     * @return The array.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<GameObject>[] newCellArray(int capacity) {
+        return (List<GameObject>[]) new List<?>[capacity];
+    }
+
+    /**
+     * Returns the cell containing a coordinate.
+     *
+     * @param coordinate The coordinate, along either axis.
+     * @return The cell's index along that axis.
+     */
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Returns the last cell a span overlaps.
+     *
+     * @param start  The span's start.
+     * @param length The span's length.
+     * @return The cell's index along the span's axis.
+     */
+    private int lastCell(float start, float length) {
+        return (int) Math.ceil((start + length) / cellSize) - 1;
+    }
+
+    /**
+     * Packs a cell's indices into a single key.
+     *
+     * @param cellX The cell's horizontal index.
+     * @param cellY The cell's vertical index.
+     * @return The cell's key.
+     */
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL);
+    }
+}
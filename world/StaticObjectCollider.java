@@ -0,0 +1,117 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the collisions of the avatar with the static objects of the loaded chunks,
+ * through a {@link SpatialHash} instead of the engine's collision pass.
+ * <p>
+ * Every frame, only the objects indexed in the cells overlapping the avatar are tested against it.
+ * Touching a fruit notifies both the avatar and the fruit, as an engine collision would, and tree trunks
+ * are solid: the avatar is pushed out of them along the axis it overlaps them least.
+ * Counts the candidate pairs tested every frame, to compare against the number of indexed objects.
+ */
+public class StaticObjectCollider {
+
+    private static final String FRUIT_TAG = "fruit";
+    private static final String TRUNK_TAG = "treeTrunk";
+
+    private final SpatialHash index;
+    private final List<GameObject> candidates = new ArrayList<>();
+    private int lastCandidatePairs = 0;
+
+    /**
+     * Constructs a StaticObjectCollider.
+     *
+     * @param index The index of the static objects of the loaded chunks.
+     */
+    public StaticObjectCollider(SpatialHash index) {
+        this.index = index;
+    }
+
+    /**
+     * Resolves the avatar's collisions with the static objects around it.
+     * Must be called after the avatar moved in the current frame.
+     *
+     * @param avatar The avatar.
+     */
+    public void update(GameObject avatar) {
+        index.query(avatar.getTopLeftCorner(), avatar.getDimensions(), candidates);
+        lastCandidatePairs = candidates.size();
+        for (GameObject other : candidates) {
+            if (!overlap(avatar, other))
+                continue;
+            if (other.getTag().equals(FRUIT_TAG)) {
+                avatar.onCollisionEnter(other, null);
+                other.onCollisionEnter(avatar, null);
+            } else if (other.getTag().equals(TRUNK_TAG)) {
+                pushOut(avatar, other);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of candidate pairs tested in the last frame.
+     *
+     * @return The candidate pair count.
+     */
+    public int getLastCandidatePairs() {
+        return lastCandidatePairs;
+    }
+
+    /**
+     * Returns the number of static objects the candidates were picked from.
+     *
+     * @return The indexed object count.
+     */
+    public int getIndexedObjects() {
+        return index.size();
+    }
+
+    /**
+     * Returns whether the bounds of two objects overlap.
+     *
+     * @param first  The first object.
+     * @param second The second object.
+     * @return true if their bounds overlap.
+     */
+    private static boolean overlap(GameObject first, GameObject second) {
+        Vector2 a = first.getTopLeftCorner();
+        Vector2 b = second.getTopLeftCorner();
+        return a.x() < b.x() + second.getDimensions().x() && b.x() < a.x() + first.getDimensions().x()
+                && a.y() < b.y() + second.getDimensions().y() && b.y() < a.y() + first.getDimensions().y();
+    }
+
+    /**
+     * Pushes a moving object out of a solid one, along the axis they overlap least,
+     * stopping its movement into the solid object.
+     *
+     * @param body  The moving object.
+     * @param solid The solid object.
+     */
+    private static void pushOut(GameObject body, GameObject solid) {
+        Vector2 bodyTopLeft = body.getTopLeftCorner();
+        Vector2 solidTopLeft = solid.getTopLeftCorner();
+        Vector2 bodyDimensions = body.getDimensions();
+        Vector2 solidDimensions = solid.getDimensions();
+        float pushLeft = bodyTopLeft.x() + bodyDimensions.x() - solidTopLeft.x();
+        float pushRight = solidTopLeft.x() + solidDimensions.x() - bodyTopLeft.x();
+        float pushUp = bodyTopLeft.y() + bodyDimensions.y() - solidTopLeft.y();
+        float pushDown = solidTopLeft.y() + solidDimensions.y() - bodyTopLeft.y();
+
+        if (Math.min(pushLeft, pushRight) < Math.min(pushUp, pushDown)) {
+            float dx = pushLeft < pushRight ? -pushLeft : pushRight;
+            body.setTopLeftCorner(bodyTopLeft.add(new Vector2(dx, 0)));
+            if (body.getVelocity().x() * dx < 0)
+                body.transform().setVelocityX(0);
+        } else {
+            float dy = pushUp < pushDown ? -pushUp : pushDown;
+            body.setTopLeftCorner(bodyTopLeft.add(new Vector2(0, dy)));
+            if (body.getVelocity().y() * dy < 0)
+                body.transform().setVelocityY(0);
+        }
+    }
+}
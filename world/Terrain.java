@@ -2,8 +2,12 @@ package pepse.world;
 
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
 import pepse.util.NoiseGenerator;
+import pepse.util.ObjectPool;
 import pepse.util.ColorSupplier;
+import pepse.util.SeedHasher;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,27 +15,70 @@ import java.util.List;
 /**
  * Represents the terrain in the game world.
  * Generates a procedural ground shape using noise, and constructs blocks to form the terrain.
+ * Depending on its {@link ColliderMode}, the terrain is built of one block per cell, one tall block
+ * per column, or one block per run of adjacent columns of equal height.
+ * Blocks of detached chunks are handed back through {@link #recycle(List)} and reused by later chunks.
  */
 public class Terrain {
 
+    /**
+     * The ways terrain columns are turned into colliding game objects.
+     */
+    public enum ColliderMode {
+        /** One {@link Block} per terrain cell. */
+        PER_BLOCK,
+        /** One tall {@link Block} per column, drawn with a {@link TerrainRenderable}. */
+        PER_COLUMN,
+        /** One {@link Block} per run of adjacent columns of equal height, drawn with a {@link TerrainRenderable}. */
+        MERGED_COLUMNS
+    }
+
     private final float groundHeightAtX0;
     private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
     private static final int TERRAIN_DEPTH = 20;
     private static final int NOISE_SMOOTHNESS = 7;
     private static final String GROUND_TAG = "ground";
+    private static final long COLOR_SALT = 1;
+    private final int seed;
     private final NoiseGenerator noiseGenerator;
+    private final ColliderMode colliderMode;
+    private final ObjectPool<Block> groundBlocks = new ObjectPool<>();
 
     /**
-     * Constructs a Terrain instance based on the window dimensions and a noise seed.
+     * Constructs a Terrain instance based on the window dimensions and a noise seed,
+     * building one block per terrain cell.
      *
      * @param windowDims The dimensions of the game window.
      * @param seed       The seed to initialize the noise generator for terrain variation.
      */
     public Terrain(Vector2 windowDims, int seed) {
+        this(windowDims, seed, ColliderMode.PER_BLOCK);
+    }
+
+    /**
+     * Constructs a Terrain instance based on the window dimensions, a noise seed and a collider mode.
+     *
+     * @param windowDims   The dimensions of the game window.
+     * @param seed         The seed to initialize the noise generator for terrain variation.
+     * @param colliderMode How terrain columns are turned into colliding game objects.
+     */
+    public Terrain(Vector2 windowDims, int seed, ColliderMode colliderMode) {
+        this.seed = seed;
+        this.colliderMode = colliderMode;
         this.groundHeightAtX0 = windowDims.y() * (2f/3f);
         this.noiseGenerator = new NoiseGenerator(seed, (int) groundHeightAtX0);
     }
 
+    /**
+     * Returns the world seed this terrain was generated with.
+     * Other generators derive their own seeds from it, so that the whole world is reproducible.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
     /**
      * Returns the ground height at a specific x-coordinate.
      * The height is calculated by adding noise-based variation to the base ground height.
@@ -48,26 +95,112 @@ public class Terrain {
      * For each horizontal block position, stacks blocks vertically downward to form terrain depth.
      *
      * @param minX The minimum x-coordinate (inclusive) to start creating terrain blocks.
-     * @param maxX The maximum x-coordinate (inclusive) to end terrain creation.
+     * @param maxX The maximum x-coordinate (exclusive) to end terrain creation.
      * @return A list of Blocks representing the terrain in the specified range.
      */
     public List<Block> createInRange(int minX, int maxX){
+        return createBlocks(generateColumns(minX, maxX));
+    }
 
-        minX = minX - (minX % Block.SIZE);
-        maxX = (maxX + Block.SIZE) - (maxX % Block.SIZE);
+    /**
+     * Generates the data describing the terrain columns within a horizontal range from minX to maxX.
+     * A column belongs to the range if its left edge lies in [minX, maxX), so adjacent ranges never
+     * share a column. The blocks' palette colors are hashed from the world seed and their cell, so a range is
+     * always generated identically.
+     *
+     * @param minX The minimum x-coordinate (inclusive) of the range.
+     * @param maxX The maximum x-coordinate (exclusive) of the range.
+     * @return The heights and block colors of the columns in the range.
+     */
+    public TerrainColumns generateColumns(int minX, int maxX){
+        int firstColumn = Math.floorDiv(minX + Block.SIZE - 1, Block.SIZE);
+        int columnCount = Math.max(0, Math.floorDiv(maxX - 1, Block.SIZE) - firstColumn + 1);
+        float[] groundHeights = new float[columnCount];
+        sampleGroundHeights(firstColumn, groundHeights);
+        return generateColumns(firstColumn, groundHeights);
+    }
 
-        float blockAmount = (float) (maxX - minX) / Block.SIZE;
-        List<Block> blocks = new ArrayList<>();
+    /**
+     * Generates the data describing consecutive terrain columns whose ground heights were already sampled,
+     * for example by a {@link HeightMap}.
+     *
+     * @param firstColumn   The index of the leftmost column.
+     * @param groundHeights The ground height of every column, as sampled by {@link #sampleGroundHeights}.
+     * @return The heights and block colors of the columns.
+     */
+    public TerrainColumns generateColumns(int firstColumn, float[] groundHeights){
+        int columnCount = groundHeights.length;
+        short[] heights = new short[columnCount];
+        byte[] colors = new byte[columnCount * TERRAIN_DEPTH];
 
-        for (int i = 0; i < blockAmount; i++) {
-            float initialHeight = (float) (Math.floor(groundHeightAt((float)minX +
-                    i * Block.SIZE)  / Block.SIZE) * Block.SIZE);
+        for (int i = 0; i < columnCount; i++) {
+            int column = firstColumn + i;
+            heights[i] = (short) Math.floor(groundHeights[i] / Block.SIZE);
             for (int j = 0; j < TERRAIN_DEPTH; j++){
+                long cellSeed = SeedHasher.hash(seed, (long) column * TERRAIN_DEPTH + j, COLOR_SALT);
+                colors[i * TERRAIN_DEPTH + j] = (byte) Math.floorMod(cellSeed, ColorSupplier.PALETTE_SIZE);
+            }
+        }
+        return new TerrainColumns(firstColumn, TERRAIN_DEPTH, heights, colors);
+    }
+
+    /**
+     * Samples the ground heights at the left edges of consecutive block columns, in one batch.
+     * The heights match {@link #groundHeightAt(float)} exactly.
+     *
+     * @param firstColumn   The index of the leftmost column.
+     * @param groundHeights The array to fill with the ground height of every column.
+     */
+    public void sampleGroundHeights(int firstColumn, float[] groundHeights){
+        double[] noise = new double[groundHeights.length];
+        noiseGenerator.noise((double) firstColumn * Block.SIZE, Block.SIZE, Block.SIZE * NOISE_SMOOTHNESS, noise);
+        for (int i = 0; i < groundHeights.length; i++) {
+            groundHeights[i] = (float) noise[i] + groundHeightAtX0;
+        }
+    }
+
+    /**
+     * Creates the terrain blocks described by the given columns, according to the collider mode,
+     * reusing recycled blocks when there are any. Must be called from the game thread.
+     *
+     * @param columns The terrain columns to build.
+     * @return A list of Blocks representing the given terrain columns.
+     */
+    public List<Block> createBlocks(TerrainColumns columns){
+        long start = System.nanoTime();
+        List<Block> blocks;
+        switch (colliderMode) {
+            case PER_COLUMN:
+                blocks = createMergedBlocks(columns, false);
+                break;
+            case MERGED_COLUMNS:
+                blocks = createMergedBlocks(columns, true);
+                break;
+            default:
+                blocks = createCellBlocks(columns);
+        }
+        Metrics.record(Subsystem.TERRAIN, start);
+        return blocks;
+    }
+
+    /**
+     * Creates one block per terrain cell.
+     * For each column, stacks blocks vertically downward from its height to form terrain depth.
+     *
+     * @param columns The terrain columns to build.
+     * @return A list of Blocks representing the given terrain columns.
+     */
+    private List<Block> createCellBlocks(TerrainColumns columns){
+        List<Block> blocks = new ArrayList<>();
+
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            float x = (columns.getFirstColumn() + i) * Block.SIZE;
+            float initialHeight = columns.getHeight(i) * Block.SIZE;
+            for (int j = 0; j < columns.getDepth(); j++){
                 RectangleRenderable blockRenderable =
-                        new RectangleRenderable(ColorSupplier.approximateColor(BASE_GROUND_COLOR));
-                Block block = new Block(new Vector2((float)minX + (i * Block.SIZE),
-                                    initialHeight + (j * Block.SIZE)),
-                                       new Vector2(Block.SIZE, Block.SIZE), blockRenderable);
+                        ColorSupplier.paletteRenderable(BASE_GROUND_COLOR, columns.getColorIndex(i, j));
+                Block block = Block.obtain(groundBlocks, new Vector2(x, initialHeight + (j * Block.SIZE)),
+                                           new Vector2(Block.SIZE, Block.SIZE), blockRenderable);
                 block.setTag(GROUND_TAG);
                 blocks.add(block);
             }
@@ -75,4 +208,69 @@ public class Terrain {
         return blocks;
     }
 
-}
+    /**
+     * Creates one tall block per column, or per run of adjacent columns of equal height.
+     * Each block is drawn with a single {@link TerrainRenderable} that keeps every cell's color.
+     *
+     * @param columns   The terrain columns to build.
+     * @param mergeRuns Whether adjacent columns of equal height share a block.
+     * @return A list of Blocks representing the given terrain columns.
+     */
+    private List<Block> createMergedBlocks(TerrainColumns columns, boolean mergeRuns){
+        List<Block> blocks = new ArrayList<>();
+        int depth = columns.getDepth();
+        int runStart = 0;
+        while (runStart < columns.getColumnCount()) {
+            int height = columns.getHeight(runStart);
+            int runEnd = runStart + 1;
+            while (mergeRuns && runEnd < columns.getColumnCount() && columns.getHeight(runEnd) == height)
+                runEnd++;
+
+            int runWidth = runEnd - runStart;
+            Block block = groundBlocks.poll();
+            TerrainRenderable renderable;
+            if (block != null && block.renderer().getRenderable() instanceof TerrainRenderable pooled) {
+                renderable = pooled;
+                renderable.resize(runWidth, depth);
+            } else {
+                renderable = new TerrainRenderable(new Color[runWidth * depth], runWidth, depth);
+            }
+            for (int i = 0; i < runWidth; i++) {
+                for (int j = 0; j < depth; j++) {
+                    renderable.setCellColor(i, j,
+                            ColorSupplier.paletteColor(BASE_GROUND_COLOR, columns.getColorIndex(runStart + i, j)));
+                }
+            }
+            Vector2 topLeftCorner =
+                    new Vector2((columns.getFirstColumn() + runStart) * Block.SIZE, height * Block.SIZE);
+            Vector2 dimensions = new Vector2(runWidth * Block.SIZE, depth * Block.SIZE);
+            if (block == null)
+                block = new Block(topLeftCorner, dimensions, renderable);
+            else
+                block.reuse(topLeftCorner, dimensions, renderable);
+            block.setTag(GROUND_TAG);
+            blocks.add(block);
+            runStart = runEnd;
+        }
+        return blocks;
+    }
+
+    /**
+     * Makes the blocks recycled since the last call available for reuse.
+     * Called once per frame, before any chunk is materialized.
+     */
+    public void reclaim(){
+        groundBlocks.reclaim();
+    }
+
+    /**
+     * Takes back the blocks of a detached chunk, to be reused by the chunks created from the next frame on.
+     * Must be called from the game thread.
+     *
+     * @param blocks The blocks, which must no longer be in the game.
+     */
+    public void recycle(List<Block> blocks){
+        groundBlocks.recycleAll(blocks);
+    }
+
+}
\ No newline at end of file
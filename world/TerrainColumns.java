@@ -0,0 +1,92 @@
+package pepse.world;
+
+import pepse.util.HeapSize;
+
+/**
+ * A compact, data-only description of a contiguous range of terrain columns.
+ * <p>
+ * Holds the height of every column, in block rows, and the palette index of every block's color
+ * (see {@link pepse.util.ColorSupplier#paletteColor}).
+ * Terrain blocks can be rebuilt from it without evaluating the noise function again.
+ */
+public class TerrainColumns {
+
+    private final int firstColumn;
+    private final int depth;
+    private final short[] heights;
+    private final byte[] colors;
+
+    /**
+     * Constructs a TerrainColumns instance.
+     *
+     * @param firstColumn The index of the leftmost column (its x-coordinate divided by {@link Block#SIZE}).
+     * @param depth       The number of blocks stacked in every column.
+     * @param heights     The top block row of every column (its y-coordinate divided by {@link Block#SIZE}).
+     * @param colors      The palette index of every block's color, column after column, top to bottom.
+     */
+    public TerrainColumns(int firstColumn, int depth, short[] heights, byte[] colors) {
+        this.firstColumn = firstColumn;
+        this.depth = depth;
+        this.heights = heights;
+        this.colors = colors;
+    }
+
+    /**
+     * Returns the index of the leftmost column.
+     *
+     * @return The first column index.
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return The column count.
+     */
+    public int getColumnCount() {
+        return heights.length;
+    }
+
+    /**
+     * Returns the number of blocks stacked in every column.
+     *
+     * @return The terrain depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the top block row of a column.
+     *
+     * @param column The column's index within this range, starting at 0.
+     * @return The y-coordinate of the column's top block, divided by {@link Block#SIZE}.
+     */
+    public int getHeight(int column) {
+        return heights[column];
+    }
+
+    /**
+     * Returns the palette index of a block's color.
+     *
+     * @param column The column's index within this range, starting at 0.
+     * @param row    The block's row within the column, 0 being the top block.
+     * @return The block's palette index.
+     */
+    public int getColorIndex(int column, int row) {
+        return colors[column * depth + row];
+    }
+
+    /**
+     * Returns an estimate of the heap memory held by this description.
+     *
+     * @return The estimated size, in bytes.
+     */
+    public long estimatedHeapBytes() {
+        return HeapSize.object(2, 2 * Integer.BYTES)
+                + HeapSize.array(heights.length, Short.BYTES)
+                + HeapSize.array(colors.length, Byte.BYTES);
+    }
+}
@@ -0,0 +1,91 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import java.awt.*;
+
+/**
+ * A renderable drawing a grid of colored cells, used to show many terrain blocks through a single
+ * game object while keeping every block's own color.
+ * <p>
+ * The grid is stretched over the rendered object's dimensions, so each cell covers
+ * one block when the object spans exactly its columns and rows.
+ */
+public class TerrainRenderable implements Renderable {
+
+    private Color[] cellColors;
+    private int columns;
+    private int rows;
+
+    /**
+     * Constructs a TerrainRenderable.
+     *
+     * @param cellColors The color of every cell, column after column, top to bottom.
+     * @param columns    The number of cell columns.
+     * @param rows       The number of cell rows.
+     */
+    public TerrainRenderable(Color[] cellColors, int columns, int rows) {
+        this.cellColors = cellColors;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Changes the size of the grid, so that a pooled ground block can reuse its renderable.
+     * The cell colors must then all be set again.
+     *
+     * @param columns The number of cell columns.
+     * @param rows    The number of cell rows.
+     */
+    public void resize(int columns, int rows) {
+        if (cellColors.length < columns * rows)
+            cellColors = new Color[columns * rows];
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Sets the color of a cell.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row, from the top.
+     * @param color  The cell's color.
+     */
+    public void setCellColor(int column, int row, Color color) {
+        cellColors[column * rows + row] = color;
+    }
+
+    /**
+     * Draws the cells. Rotation and flipping are ignored, since terrain never rotates.
+     *
+     * @param g                       The graphics context to draw with.
+     * @param topLeftCorner           The top-left corner of the rendered area, in screen pixels.
+     * @param dimensions              The size of the rendered area, in screen pixels.
+     * @param degreesCounterClockwise Ignored.
+     * @param isFlippedHorizontally   Ignored.
+     * @param isFlippedVertically     Ignored.
+     * @param opaqueness              The opacity to draw the cells with, in [0, 1].
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        if (opaqueness < 1)
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+
+        float cellWidth = dimensions.x() / columns;
+        float cellHeight = dimensions.y() / rows;
+        for (int i = 0; i < columns; i++) {
+            int left = Math.round(topLeftCorner.x() + i * cellWidth);
+            int right = Math.round(topLeftCorner.x() + (i + 1) * cellWidth);
+            for (int j = 0; j < rows; j++) {
+                int top = Math.round(topLeftCorner.y() + j * cellHeight);
+                int bottom = Math.round(topLeftCorner.y() + (j + 1) * cellHeight);
+                g.setColor(cellColors[i * rows + j]);
+                g.fillRect(left, top, right - left, bottom - top);
+            }
+        }
+        g.setComposite(originalComposite);
+    }
+}
@@ -1,59 +1,125 @@
 package pepse.world.trees;
 
 
-import danogl.util.Vector2;
+import pepse.metrics.Metrics;
+import pepse.metrics.Subsystem;
+import pepse.util.SeedHasher;
+import pepse.util.TimerWheel;
 import pepse.world.Block;
+import pepse.world.HeightMap;
 import pepse.world.Terrain;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 
 /**
  * Utility class responsible for generating trees (flora) within a given range of the world.
  * <p>
  * This class uses random placement to create natural-looking tree distributions
- * on top of the terrain.
+ * on top of the terrain. Placement and tree shapes are seeded by the world seed and the tree's
+ * column, so any range of the world is always generated identically.
  */
 public class Flora {
 
     private final Terrain terrain;
+    private final HeightMap heightMap;
+    private final TimerWheel regrowth;
+    private final TreeTemplates templates;
+    private final TreePool pool = new TreePool();
     private static final int RANDOMNESS_COEF = 20;
+    private static final long PLACEMENT_SALT = 2;
+    private static final long TREE_SALT = 3;
+    private static final int TEMPLATES_PER_HEIGHT = 64;
 
     /**
      * Constructs a Flora instance.
      *
-     * @param terrain The {@link Terrain} object used to calculate the ground height for tree placement.
+     * @param terrain   The {@link Terrain} the trees grow on, whose seed seeds the trees.
+     * @param heightMap The cached ground heights of the terrain, used for tree placement.
+     * @param regrowth  The world's shared timer wheel that makes eaten fruits grow back.
      */
-    public Flora(Terrain terrain) {
+    public Flora(Terrain terrain, HeightMap heightMap, TimerWheel regrowth) {
         this.terrain = terrain;
+        this.heightMap = heightMap;
+        this.regrowth = regrowth;
+        this.templates = new TreeTemplates(terrain.getSeed(), TEMPLATES_PER_HEIGHT);
     }
 
     /**
      * Generates a list of trees within the specified horizontal range.
-     * <p>
-     * The range is aligned to the block grid, and trees are placed randomly along this range.
-     * Approximately 1 out of every 15 positions will contain a tree.
      *
      * @param minX The minimum x-coordinate of the range (inclusive).
-     * @param maxX The maximum x-coordinate of the range (inclusive).
+     * @param maxX The maximum x-coordinate of the range (exclusive).
      * @return A list of {@link Tree} objects positioned on top of the terrain within the given range.
+     * @see #generateInRange(int, int)
      */
     public List<Tree> createInRange(int minX, int maxX){
+        return createFromData(generateInRange(minX, maxX));
+    }
 
-        minX = minX - (minX % Block.SIZE);
-        maxX = (maxX + Block.SIZE) - (maxX % Block.SIZE);
-        float blockAmount = (float) (maxX - minX) / Block.SIZE;
-
-        List<Tree> trees = new ArrayList<>();
-        Random rand = new Random();
-        for (int i = 0; i <= blockAmount; i++){
-            if(rand.nextInt(RANDOMNESS_COEF) == 0){
-                float x = minX + (i * Block.SIZE);
-                Tree test = new Tree(new Vector2(x, terrain.groundHeightAt(x) - Block.SIZE));
-                trees.add(test);
+    /**
+     * Generates the data descriptions of the trees within the specified horizontal range.
+     * <p>
+     * Trees are placed on the block columns whose left edge lies in [minX, maxX), so adjacent ranges
+     * never share a tree. Approximately 1 out of every {@value RANDOMNESS_COEF} columns contains a tree.
+     * Every tree is stamped from one of the world's {@link TreeTemplates}, picked by a hash of its column.
+     *
+     * @param minX The minimum x-coordinate of the range (inclusive).
+     * @param maxX The maximum x-coordinate of the range (exclusive).
+     * @return A list of {@link TreeData} describing trees on top of the terrain within the given range.
+     */
+    public List<TreeData> generateInRange(int minX, int maxX){
+
+        int firstColumn = Math.floorDiv(minX + Block.SIZE - 1, Block.SIZE);
+        int lastColumn = Math.floorDiv(maxX - 1, Block.SIZE);
+        long seed = terrain.getSeed();
+
+        List<TreeData> trees = new ArrayList<>();
+        for (int column = firstColumn; column <= lastColumn; column++){
+            if(Math.floorMod(SeedHasher.hash(seed, column, PLACEMENT_SALT), RANDOMNESS_COEF) == 0){
+                float x = column * Block.SIZE;
+                trees.add(templates.stamp(x, heightMap.groundHeightAt(x) - Block.SIZE,
+                        SeedHasher.hash(seed, column, TREE_SALT)));
             }
         }
         return trees;
     }
+
+    /**
+     * Builds trees from their data descriptions, reusing the game objects of recycled trees.
+     * Must be called from the game thread.
+     *
+     * @param treeData The data descriptions of the trees.
+     * @return A list of {@link Tree} objects, in the same order.
+     */
+    public List<Tree> createFromData(List<TreeData> treeData){
+        long start = System.nanoTime();
+        List<Tree> trees = new ArrayList<>(treeData.size());
+        for (TreeData data : treeData){
+            trees.add(new Tree(data, regrowth, pool));
+        }
+        Metrics.record(Subsystem.FLORA, start);
+        return trees;
+    }
+
+    /**
+     * Makes the game objects of the trees recycled since the last call available for reuse.
+     * Called once per frame, before any chunk is materialized.
+     */
+    public void reclaim(){
+        pool.reclaim();
+    }
+
+    /**
+     * Takes back the game objects of trees that were removed from the game, to be reused by the
+     * trees built from the next frame on. The trees' data must have been read first.
+     * Must be called from the game thread.
+     *
+     * @param trees The released trees.
+     */
+    public void recycle(List<Tree> trees){
+        for (Tree tree : trees){
+            pool.recycle(tree);
+        }
+    }
 }
@@ -1,24 +1,35 @@
 package pepse.world.trees;
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.components.ScheduledTask;
 import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
+import pepse.util.TimerWheel;
 import java.awt.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class representing a collectible fruit in the game world.
  * <p>
  * Fruits can be collected by the player (avatar). Once collected, the fruit disappears
- * and is scheduled to reappear after a full night cycle.
+ * and is scheduled to reappear after a full night cycle, through the world's shared regrowth {@link TimerWheel},
+ * so an eaten fruit costs nothing until it grows back. The deadline is a time on the wheel's clock,
+ * so it stays valid when stored with the fruit's chunk, and is scheduled again when the chunk is rebuilt.
+ * Fruits of detached chunks are pooled and {@link #reuse reused}; every reuse starts a new generation,
+ * so a timer still pending for the fruit's previous life is ignored when it fires.
  */
 public class Fruit extends GameObject {
 
     private static final String FRUIT_TAG = "fruit";
     private static final String AVATAR_TAG = "avatar";
-    private final Color fruitColor;
-    private boolean refreshFruit = false;
+    private static final String DISABLED_FRUIT_TAG = "disabledFruit";
+    private static final Map<Color, Renderable> RENDERABLES = new ConcurrentHashMap<>();
+    private final TimerWheel regrowth;
+    private Renderable fruitRenderable;
+    private float regrowDeadline = 0;
+    private int generation = 0;
     private static final int FRUIT_SIZE = 25;
 
     /**
@@ -26,11 +37,89 @@ public class Fruit extends GameObject {
      *
      * @param position   The initial position of the fruit in the game world.
      * @param fruitColor The color to render the fruit with.
+     * @param regrowth   The world's shared timer wheel that makes eaten fruits grow back.
      */
-    public Fruit(Vector2 position, Color fruitColor) {
-        super(position, new Vector2(FRUIT_SIZE, FRUIT_SIZE), new OvalRenderable(fruitColor));
-        this.fruitColor = fruitColor;
+    public Fruit(Vector2 position, Color fruitColor, TimerWheel regrowth) {
+        this(position, fruitColor, 0, regrowth);
+    }
+
+    /**
+     * Constructs a Fruit instance that may start out eaten.
+     * A fruit whose deadline already passed, for example while its chunk was unloaded, starts out grown back.
+     * Safe to call from the chunk generator's worker threads.
+     *
+     * @param position       The initial position of the fruit in the game world.
+     * @param fruitColor     The color to render the fruit with.
+     * @param regrowDeadline The time on the regrowth wheel's clock at which the fruit grows back,
+     *                       or 0 if it is not eaten.
+     * @param regrowth       The world's shared timer wheel that makes eaten fruits grow back.
+     */
+    public Fruit(Vector2 position, Color fruitColor, float regrowDeadline, TimerWheel regrowth) {
+        super(position, new Vector2(FRUIT_SIZE, FRUIT_SIZE), renderableOf(fruitColor));
+        this.regrowth = regrowth;
+        reset(fruitColor, regrowDeadline);
+    }
+
+    /**
+     * Returns the renderable shared by all fruits of a color.
+     *
+     * @param fruitColor The fruit color.
+     * @return The color's oval renderable.
+     */
+    private static Renderable renderableOf(Color fruitColor) {
+        return RENDERABLES.computeIfAbsent(fruitColor, OvalRenderable::new);
+    }
+
+    /**
+     * Resets a released fruit to a new position, color and state, as if it was just constructed.
+     * Must be called from the game thread.
+     *
+     * @param position       The new position of the fruit in the game world.
+     * @param fruitColor     The color to render the fruit with.
+     * @param regrowDeadline The time on the regrowth wheel's clock at which the fruit grows back,
+     *                       or 0 if it is not eaten.
+     */
+    public void reuse(Vector2 position, Color fruitColor, float regrowDeadline) {
+        generation++;
+        setTopLeftCorner(position);
+        reset(fruitColor, regrowDeadline);
+    }
+
+    /**
+     * Sets the fruit's color and state, scheduling it to grow back if it is eaten.
+     *
+     * @param fruitColor     The color to render the fruit with.
+     * @param regrowDeadline The time on the regrowth wheel's clock at which the fruit grows back,
+     *                       or 0 if it is not eaten.
+     */
+    private void reset(Color fruitColor, float regrowDeadline) {
+        this.fruitRenderable = renderableOf(fruitColor);
+        this.regrowDeadline = 0;
         this.setTag(FRUIT_TAG);
+        renderer().setRenderable(fruitRenderable);
+        if (regrowDeadline > regrowth.now()) {
+            this.regrowDeadline = regrowDeadline;
+            this.setTag(DISABLED_FRUIT_TAG);
+            renderer().setRenderable(null);
+            scheduleRegrowth();
+        }
+    }
+
+    /**
+     * Schedules the fruit to grow back at its deadline, in its current generation.
+     */
+    private void scheduleRegrowth() {
+        int scheduledGeneration = generation;
+        regrowth.schedule(regrowDeadline, () -> regrow(scheduledGeneration));
+    }
+
+    /**
+     * Returns the time at which this fruit grows back.
+     *
+     * @return The time on the regrowth wheel's clock, in seconds, or 0 if the fruit is not eaten.
+     */
+    public float getRegrowDeadline() {
+        return regrowDeadline;
     }
 
 
@@ -46,28 +135,24 @@ public class Fruit extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        if(other.getTag().equals(AVATAR_TAG)) {
+        if(other.getTag().equals(AVATAR_TAG) && regrowDeadline == 0) {
             renderer().setRenderable(null);
-            new ScheduledTask(this, PepseGameManager.NIGHT_CYCLE_LENGTH, false,
-                    () -> refreshFruit = true);
+            regrowDeadline = (float) (regrowth.now() + PepseGameManager.NIGHT_CYCLE_LENGTH);
+            scheduleRegrowth();
         }
     }
 
     /**
-     * Updates the fruit each frame.
-     * <p>
-     * If the fruit is flagged for refresh, it becomes visible again with its original color.
+     * Makes the fruit visible again with its color. Run by the regrowth wheel at the fruit's deadline;
+     * does nothing if the fruit was reused since it was scheduled.
      *
-     * @param deltaTime The time elapsed since the last frame (in seconds).
+     * @param scheduledGeneration The fruit's generation when it was scheduled.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if(refreshFruit){
-            refreshFruit = false;
-            this.setTag(FRUIT_TAG);
-            renderer().setRenderable(new OvalRenderable(fruitColor));
-        }
-
+    private void regrow(int scheduledGeneration) {
+        if (scheduledGeneration != generation)
+            return;
+        regrowDeadline = 0;
+        this.setTag(FRUIT_TAG);
+        renderer().setRenderable(fruitRenderable);
     }
 }
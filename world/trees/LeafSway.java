@@ -0,0 +1,102 @@
+package pepse.world.trees;
+
+import danogl.util.Vector2;
+import pepse.world.Block;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single animation clock that makes all loaded leaves sway in the wind.
+ * <p>
+ * Every leaf swings back and forth between two angles and slightly stretches vertically,
+ * following one shared clock shifted by the leaf's own phase offset. Leaves are registered in groups,
+ * one per chunk, when their chunk is loaded and unregistered when it is unloaded, so unloaded
+ * leaves cost nothing. Leaf sizes are taken from a precomputed table, so a frame allocates nothing.
+ */
+public class LeafSway {
+
+    private static final float INIITAL_LEAF_TRANSITION_VALUE = -5f;
+    private static final float FINAL_LEAF_TRANSITION_VALUE = 5f;
+    private static final float TRANSITION_TIME = 2f;
+    private static final int STRETCH_STEPS = 20;
+
+    /**
+     * The leaves of one chunk, together with their phase offsets.
+     */
+    public static class Group {
+        private final Block[] leaves;
+        private final float[] phaseOffsets;
+
+        /**
+         * Constructs a group of leaves.
+         *
+         * @param leaves       The leaf blocks.
+         * @param phaseOffsets The phase offset of every leaf, in seconds.
+         */
+        public Group(List<Block> leaves, float[] phaseOffsets) {
+            this.leaves = leaves.toArray(new Block[0]);
+            this.phaseOffsets = phaseOffsets;
+        }
+    }
+
+    private final List<Group> groups = new ArrayList<>();
+    private final Vector2[] stretchedDimensions = new Vector2[STRETCH_STEPS + 1];
+    private float clock = 0;
+
+    /**
+     * Constructs a LeafSway with no registered leaves.
+     */
+    public LeafSway() {
+        for (int i = 0; i <= STRETCH_STEPS; i++) {
+            stretchedDimensions[i] = new Vector2(Block.SIZE,
+                    Block.SIZE + FINAL_LEAF_TRANSITION_VALUE * i / STRETCH_STEPS);
+        }
+    }
+
+    /**
+     * Starts animating a group of leaves.
+     *
+     * @param group The leaves to animate.
+     */
+    public void add(Group group) {
+        groups.add(group);
+    }
+
+    /**
+     * Stops animating a group of leaves.
+     *
+     * @param group The leaves to stop animating.
+     */
+    public void remove(Group group) {
+        groups.remove(group);
+    }
+
+    /**
+     * Advances the clock and applies the current angle and stretch to every registered leaf.
+     *
+     * @param deltaTime Time elapsed since last frame in seconds.
+     */
+    public void update(float deltaTime) {
+        clock = (clock + deltaTime) % (2 * TRANSITION_TIME);
+        for (Group group : groups) {
+            for (int i = 0; i < group.leaves.length; i++) {
+                float progress = backAndForth(clock + group.phaseOffsets[i]);
+                group.leaves[i].renderer().setRenderableAngle(INIITAL_LEAF_TRANSITION_VALUE +
+                        (FINAL_LEAF_TRANSITION_VALUE - INIITAL_LEAF_TRANSITION_VALUE) * progress);
+                group.leaves[i].setDimensions(stretchedDimensions[Math.round(progress * STRETCH_STEPS)]);
+            }
+        }
+    }
+
+    /**
+     * Maps a time to the progress of a linear back-and-forth transition.
+     *
+     * @param time The time, in seconds.
+     * @return The progress, rising from 0 to 1 and back within every two transition times.
+     */
+    private static float backAndForth(float time) {
+        float cycle = 2 * TRANSITION_TIME;
+        float position = ((time % cycle) + cycle) % cycle / TRANSITION_TIME;
+        return position <= 1 ? position : 2 - position;
+    }
+}
@@ -1,13 +1,13 @@
 package pepse.world.trees;
 
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
+import pepse.util.TimerWheel;
 import pepse.world.Block;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -17,6 +17,9 @@ import java.util.Random;
  * <p>
  * A tree consists of a trunk, a cluster of animated leaves, and a collection of collectible fruits.
  * The tree's trunk height and leaf/fruit placement are randomly generated to provide variety.
+ * Generation is split in two: a compact {@link TreeData} description is generated first, and the
+ * tree's game objects are then built from it, so a tree can also be rebuilt from stored data.
+ * The game objects are taken from a {@link TreePool}, which gets them back when the tree's chunk is detached.
  */
 public class Tree {
 
@@ -25,20 +28,22 @@ public class Tree {
 
 
 
+    /** The time unit of a leaf's sway delay (its negated phase offset), in seconds. */
+    public static final float LEAF_DELAY_UNIT = 1f / 20;
+
     private final int trunkHeight;
     private final Vector2 treePos;
-    private final Random rand = new Random();
+    private final TreeData data;
+    private final TimerWheel regrowth;
+    private final TreePool pool;
 
     private final List<Block> trunkBlocks = new ArrayList<>();
     private final List<Block> leafBlocks = new ArrayList<>();
     private final List<Fruit> fruits = new ArrayList<>();
+    private final float[] leafPhaseOffsets;
 
     private static final String LEAF_TAG = "leaf";
-    private static final String FRUIT_TAG = "fruit";
     private static final String TRUNK_TAG = "treeTrunk";
-    private static final float INIITAL_LEAF_TRANSITION_VALUE = -5f;
-    private static final float FINAL_LEAF_TRANSITION_VALUE = 5f;
-    private static final float TRANSITION_TIME = 2f;
     private static final Color TRUNK_COLOR = new Color(100, 50, 20);
     private static final Color LEAF_COLOR = new Color(50, 200, 30);
     private static final int RANDOMNESS_COEF = 20;
@@ -52,54 +57,139 @@ public class Tree {
     /**
      * Constructs a new Tree instance at the specified position.
      * <p>
-     * The tree's trunk height, leaf layout, and fruit placement are randomized.
+     * The tree's trunk height, leaf layout, fruit placement and colors are randomized,
+     * and fully determined by the given seed.
      *
      * @param position The base position of the tree (bottom-left corner of the trunk).
+     * @param seed     The seed of the tree's random generator.
+     * @param regrowth The world's shared timer wheel that makes eaten fruits grow back.
      */
-    public Tree(Vector2 position){
-        this.treePos = position;
-        this.trunkHeight = rand.nextBoolean() ? LOW_TREE_HEIGHT : HIGH_TREE_HEIGHT;
+    public Tree(Vector2 position, long seed, TimerWheel regrowth){
+        this(generateData(position, seed), regrowth, new TreePool());
+    }
+
+    /**
+     * Constructs a tree from its data description, for example one read back from the chunk store.
+     *
+     * @param data     The tree's data description.
+     * @param regrowth The world's shared timer wheel that makes eaten fruits grow back.
+     * @param pool     The pool the tree's game objects are reused from, when it holds any.
+     */
+    public Tree(TreeData data, TimerWheel regrowth, TreePool pool){
+        this.data = data;
+        this.regrowth = regrowth;
+        this.pool = pool;
+        this.treePos = new Vector2(data.getX(), data.getY());
+        this.trunkHeight = data.getTrunkHeight();
+        this.leafPhaseOffsets = new float[Long.bitCount(data.getLeafMask())];
         generateTrunk();
         generateLeavesAndFruit();
     }
 
     /**
-     * Generates and places the tree's leaves and fruit objects.
+     * Generates the data description of a tree at the specified position.
+     * <p>
+     * The trunk height is chosen at random, then every cell of the canopy grid randomly holds a fruit,
+     * and independently a leaf. The bottom row of the canopy always holds leaves.
+     *
+     * @param position The base position of the tree (bottom-left corner of the trunk).
+     * @param seed     The seed of the tree's random generator.
+     * @return The tree's data description.
+     */
+    public static TreeData generateData(Vector2 position, long seed){
+        Random rand = new Random(seed);
+        int trunkHeight = rand.nextBoolean() ? LOW_TREE_HEIGHT : HIGH_TREE_HEIGHT;
+        int trunkColor = rand.nextInt(ColorSupplier.PALETTE_SIZE);
+        return generateData(position, trunkHeight, trunkColor, rand);
+    }
+
+    /**
+     * Returns the trunk heights a tree can have, in blocks.
+     *
+     * @return A new array of the possible trunk heights.
+     */
+    static int[] trunkHeights(){
+        return new int[]{LOW_TREE_HEIGHT, HIGH_TREE_HEIGHT};
+    }
+
+    /**
+     * Generates the data description of a tree with a given trunk, rolling its canopy layout at random.
+     * Every cell of the canopy grid randomly holds a fruit, and independently a leaf.
+     * The bottom row of the canopy always holds leaves.
+     *
+     * @param position    The base position of the tree (bottom-left corner of the trunk).
+     * @param trunkHeight The trunk height, in blocks; one of {@link #trunkHeights()}.
+     * @param trunkColor  The palette index of the trunk's color.
+     * @param rand        The random generator that rolls the canopy.
+     * @return The tree's data description.
+     */
+    static TreeData generateData(Vector2 position, int trunkHeight, int trunkColor, Random rand){
+        int canopySize = trunkHeight + 2;
+
+        long leafMask = 0;
+        long fruitMask = 0;
+        byte[] leafColors = new byte[canopySize * canopySize];
+        byte[] leafDelays = new byte[canopySize * canopySize];
+        byte[] fruitColorIndices = new byte[canopySize * canopySize];
+        int leafCount = 0;
+        int fruitCount = 0;
+        for (int i = 0; i < canopySize; i++) {
+            for (int j = 0; j < canopySize; j++) {
+                int cell = i * canopySize + j;
+
+                if (rand.nextInt(RANDOMNESS_COEF) == 0){
+                    fruitMask |= 1L << cell;
+                    fruitColorIndices[fruitCount++] = (byte) rand.nextInt(fruitColors.length);
+                }
+
+                if(rand.nextInt(RANDOMNESS_COEF) > LEAF_SPARSITY_THRESHOLD || j == canopySize - 1){
+                    leafMask |= 1L << cell;
+                    leafColors[leafCount] = (byte) rand.nextInt(ColorSupplier.PALETTE_SIZE);
+                    leafDelays[leafCount++] = (byte) rand.nextInt(RANDOMNESS_COEF);
+                }
+            }
+        }
+        return new TreeData(position.x(), position.y(), trunkHeight, trunkColor,
+                leafMask, Arrays.copyOf(leafColors, leafCount), Arrays.copyOf(leafDelays, leafCount),
+                fruitMask, Arrays.copyOf(fruitColorIndices, fruitCount), 0, new float[fruitCount]);
+    }
+
+    /**
+     * Generates and places the tree's leaves and fruit objects, as described by the tree's data.
      * <p>
-     * Leaves are animated using transitions to sway and stretch.
-     * Fruits are placed randomly within the leaf cluster.
+     * Leaves sway with a phase offset given by their delay, once registered with a {@link LeafSway}.
+     * Fruits that were eaten start out invisible, and grow back when the regrowth wheel reaches their deadline.
      */
     private void generateLeavesAndFruit() {
         Vector2 startPos = new Vector2(treePos.x() -
             (trunkHeight == LOW_TREE_HEIGHT ? LOW_TREE_CANOPY_WIDTH : HIGH_TREE_CANOPY_WIDTH) * Block.SIZE,
             treePos.y() - (2 * trunkHeight + 1) * Block.SIZE);
-        for (int i = 0; i < trunkHeight + 2; i++) {
-            for (int j = 0; j < trunkHeight + 2; j++) {
+        int canopySize = data.getCanopySize();
+        int leafCount = 0;
+        for (int i = 0; i < canopySize; i++) {
+            for (int j = 0; j < canopySize; j++) {
+                long cellBit = 1L << (i * canopySize + j);
 
-                if (rand.nextInt(RANDOMNESS_COEF) == 0){
+                if ((data.getFruitMask() & cellBit) != 0){
+                    int fruit = fruits.size();
                     generateFruit(
                             new Vector2(startPos.x() + i * Block.SIZE, startPos.y() + (j * Block.SIZE)),
-                            fruitColors[rand.nextInt(fruitColors.length)]);
+                            fruitColors[data.getFruitColor(fruit)],
+                            data.getFruitRegrowDeadline(fruit));
                 }
 
-                if(rand.nextInt(RANDOMNESS_COEF) > LEAF_SPARSITY_THRESHOLD || j == trunkHeight + 1){
+                if((data.getLeafMask() & cellBit) != 0){
                     RectangleRenderable leafRenderable =
-                    new RectangleRenderable(ColorSupplier.approximateColor(LEAF_COLOR));
+                    ColorSupplier.paletteRenderable(LEAF_COLOR, data.getLeafColor(leafCount));
 
-                    Block leaf = new Block(new Vector2(startPos.x() + i * Block.SIZE,
-                            startPos.y() + (j * Block.SIZE)),
-                            new Vector2(Block.SIZE, Block.SIZE), leafRenderable);
+                    Block leaf = pool.leaf(new Vector2(startPos.x() + i * Block.SIZE,
+                            startPos.y() + (j * Block.SIZE)), leafRenderable);
                     leaf.setTag(LEAF_TAG);
                     leaf.physics().preventIntersectionsFromDirection(null);
 
-                    new ScheduledTask(
-                            leaf,//Obj
-                            rand.nextInt(RANDOMNESS_COEF) / (float) RANDOMNESS_COEF,
-
-                            false,
-                            () -> initiateLeafTransitions(leaf)
-                    );
+                    leafPhaseOffsets[leafCount] = -data.getLeafDelay(leafCount) * LEAF_DELAY_UNIT;
                     this.leafBlocks.add(leaf);
+                    leafCount++;
                 }
             }
         }
@@ -109,58 +199,23 @@ public class Tree {
     /**
      * Generates a fruit object at the specified position with the given color.
      *
-     * @param position The position to place the fruit.
-     * @param color    The color of the fruit.
+     * @param position       The position to place the fruit.
+     * @param color          The color of the fruit.
+     * @param regrowDeadline The time at which the fruit grows back, or 0 if it is not eaten.
      */
-    private void generateFruit(Vector2 position, Color color) {
-        Fruit fruit = new Fruit(position, color);
-        fruit.setTag(FRUIT_TAG);
-        this.fruits.add(fruit);
-    }
-
-    /**
-     * Adds simple animation transitions to the specified leaf block.
-     * <p>
-     * The leaf will sway left and right and slightly stretch vertically.
-     *
-     * @param leaf The leaf block to animate.
-     */
-    private void initiateLeafTransitions(Block leaf) {
-        new Transition<Float>(
-                leaf,
-                (Float angle) ->
-                        leaf.renderer().setRenderableAngle(angle),
-                INIITAL_LEAF_TRANSITION_VALUE,
-                FINAL_LEAF_TRANSITION_VALUE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
-
-        new Transition<Float>(
-                leaf,
-                (Float angle) ->
-                        leaf.setDimensions(new Vector2(Block.SIZE, Block.SIZE + angle)),
-                0f,
-                FINAL_LEAF_TRANSITION_VALUE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+    private void generateFruit(Vector2 position, Color color, float regrowDeadline) {
+        this.fruits.add(pool.fruit(position, color, regrowDeadline, regrowth));
     }
 
     /**
      * Generates and places the blocks that make up the tree's trunk.
      */
     private void generateTrunk() {
-        RectangleRenderable trunk = new RectangleRenderable(ColorSupplier.approximateColor(TRUNK_COLOR));
+        RectangleRenderable trunk = ColorSupplier.paletteRenderable(TRUNK_COLOR, data.getTrunkColor());
 
         for (int i = 0; i < trunkHeight; i++) {
-            Block block = new Block(new Vector2(treePos.x(),
-                    treePos.y() - (i * Block.SIZE)),
-                    new Vector2(Block.SIZE, Block.SIZE), trunk);
+            Block block = pool.trunk(new Vector2(treePos.x(),
+                    treePos.y() - (i * Block.SIZE)), trunk);
             block.setTag(TRUNK_TAG);
             this.trunkBlocks.add(block);
         }
@@ -184,6 +239,15 @@ public class Tree {
         return leafBlocks;
     }
 
+    /**
+     * Returns the sway phase offset of every leaf, in the order of {@link #getLeafBlocks()}.
+     *
+     * @return The leaves' phase offsets, in seconds.
+     */
+    public float[] getLeafPhaseOffsets(){
+        return leafPhaseOffsets;
+    }
+
     /**
      * Returns the list of fruit objects attached to the tree.
      *
@@ -193,4 +257,16 @@ public class Tree {
         return fruits;
     }
 
+    /**
+     * Returns the tree's data description, updated with the current state of its fruits.
+     *
+     * @return The tree's {@link TreeData}.
+     */
+    public TreeData getData(){
+        for (int i = 0; i < fruits.size(); i++) {
+            data.setFruitState(i, fruits.get(i).getRegrowDeadline());
+        }
+        return data;
+    }
+
 }
@@ -0,0 +1,215 @@
+package pepse.world.trees;
+
+import pepse.util.HeapSize;
+
+/**
+ * A compact, data-only description of a single tree.
+ * <p>
+ * The tree's canopy is a square grid of cells, {@code trunkHeight + 2} cells wide, indexed column
+ * by column. Which cells hold a leaf or a fruit is stored as bit masks over that grid, followed by
+ * the per-leaf and per-fruit attributes in cell order. Trunk and leaf colors are palette indices
+ * (see {@link pepse.util.ColorSupplier#paletteColor}). The state of every fruit (whether it was
+ * eaten, and when it grows back) is the only mutable part. Regrowth deadlines are absolute times on
+ * the world's regrowth clock (see {@link pepse.util.TimerWheel}), so they keep running while the tree's
+ * chunk is unloaded or stored.
+ */
+public class TreeData {
+
+    private final float x;
+    private final float y;
+    private final int trunkHeight;
+    private final int trunkColor;
+    private final long leafMask;
+    private final byte[] leafColors;
+    private final byte[] leafDelays;
+    private final long fruitMask;
+    private final byte[] fruitColors;
+    private long eatenFruitMask;
+    private final float[] fruitRegrowDeadlines;
+
+    /**
+     * Constructs a TreeData instance.
+     *
+     * @param x                    The x-coordinate of the tree's base.
+     * @param y                    The y-coordinate of the tree's base.
+     * @param trunkHeight          The trunk height, in blocks.
+     * @param trunkColor           The palette index of the trunk's color.
+     * @param leafMask             The canopy cells that hold a leaf.
+     * @param leafColors           The palette index of every leaf's color, in cell order.
+     * @param leafDelays           The delay before every leaf starts swaying, in cell order,
+     *                             in units of {@link Tree#LEAF_DELAY_UNIT} seconds.
+     * @param fruitMask            The canopy cells that hold a fruit.
+     * @param fruitColors          The palette index of every fruit's color, in cell order.
+     * @param eatenFruitMask       The fruits, by their order, that are currently eaten.
+     * @param fruitRegrowDeadlines The time at which every eaten fruit grows back, in seconds.
+     */
+    public TreeData(float x, float y, int trunkHeight, int trunkColor,
+                    long leafMask, byte[] leafColors, byte[] leafDelays,
+                    long fruitMask, byte[] fruitColors, long eatenFruitMask, float[] fruitRegrowDeadlines) {
+        this.x = x;
+        this.y = y;
+        this.trunkHeight = trunkHeight;
+        this.trunkColor = trunkColor;
+        this.leafMask = leafMask;
+        this.leafColors = leafColors;
+        this.leafDelays = leafDelays;
+        this.fruitMask = fruitMask;
+        this.fruitColors = fruitColors;
+        this.eatenFruitMask = eatenFruitMask;
+        this.fruitRegrowDeadlines = fruitRegrowDeadlines;
+    }
+
+    /**
+     * Returns a tree with this tree's trunk height and canopy layout, at another position and with another
+     * trunk color, and with none of its fruits eaten. The layout arrays are shared, not copied.
+     *
+     * @param x          The x-coordinate of the new tree's base.
+     * @param y          The y-coordinate of the new tree's base.
+     * @param trunkColor The palette index of the new tree's trunk color.
+     * @return The new tree's data description.
+     */
+    public TreeData stampAt(float x, float y, int trunkColor) {
+        return new TreeData(x, y, trunkHeight, trunkColor, leafMask, leafColors, leafDelays,
+                fruitMask, fruitColors, 0, new float[fruitColors.length]);
+    }
+
+    /**
+     * Returns the x-coordinate of the tree's base.
+     *
+     * @return The x-coordinate of the tree's base.
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the tree's base.
+     *
+     * @return The y-coordinate of the tree's base.
+     */
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Returns the trunk height, in blocks.
+     *
+     * @return The trunk height, in blocks.
+     */
+    public int getTrunkHeight() {
+        return trunkHeight;
+    }
+
+    /**
+     * Returns the palette index of the trunk's color.
+     *
+     * @return The palette index of the trunk's color.
+     */
+    public int getTrunkColor() {
+        return trunkColor;
+    }
+
+    /**
+     * Returns the width (and height) of the canopy grid, in cells.
+     *
+     * @return The width (and height) of the canopy grid, in cells.
+     */
+    public int getCanopySize() {
+        return trunkHeight + 2;
+    }
+
+    /**
+     * Returns the canopy cells that hold a leaf.
+     *
+     * @return The canopy cells that hold a leaf.
+     */
+    public long getLeafMask() {
+        return leafMask;
+    }
+
+    /**
+     * Returns the palette index of the leaf's color.
+     *
+     * @param leaf The leaf's order among the tree's leaves.
+     * @return The palette index of the leaf's color.
+     */
+    public int getLeafColor(int leaf) {
+        return leafColors[leaf];
+    }
+
+    /**
+     * Returns the delay before the leaf starts swaying, in units of {@link Tree#LEAF_DELAY_UNIT} seconds.
+     *
+     * @param leaf The leaf's order among the tree's leaves.
+     * @return The delay before the leaf starts swaying, in units of {@link Tree#LEAF_DELAY_UNIT} seconds.
+     */
+    public int getLeafDelay(int leaf) {
+        return leafDelays[leaf];
+    }
+
+    /**
+     * Returns the canopy cells that hold a fruit.
+     *
+     * @return The canopy cells that hold a fruit.
+     */
+    public long getFruitMask() {
+        return fruitMask;
+    }
+
+    /**
+     * Returns the palette index of the fruit's color.
+     *
+     * @param fruit The fruit's order among the tree's fruits.
+     * @return The palette index of the fruit's color.
+     */
+    public int getFruitColor(int fruit) {
+        return fruitColors[fruit];
+    }
+
+    /**
+     * Returns the fruits, by their order, that are currently eaten.
+     *
+     * @return The fruits, by their order, that are currently eaten.
+     */
+    public long getEatenFruitMask() {
+        return eatenFruitMask;
+    }
+
+    /**
+     * Returns the time at which the fruit grows back, in seconds, or 0 if it is not eaten.
+     *
+     * @param fruit The fruit's order among the tree's fruits.
+     * @return The time at which the fruit grows back, in seconds, or 0 if it is not eaten.
+     */
+    public float getFruitRegrowDeadline(int fruit) {
+        return (eatenFruitMask & (1L << fruit)) == 0 ? 0 : fruitRegrowDeadlines[fruit];
+    }
+
+    /**
+     * Records the current state of a fruit.
+     *
+     * @param fruit          The fruit's order among the tree's fruits.
+     * @param regrowDeadline The time at which the fruit grows back, in seconds, or 0 if it is not eaten.
+     */
+    public void setFruitState(int fruit, float regrowDeadline) {
+        if (regrowDeadline > 0)
+            eatenFruitMask |= 1L << fruit;
+        else
+            eatenFruitMask &= ~(1L << fruit);
+        fruitRegrowDeadlines[fruit] = Math.max(0, regrowDeadline);
+    }
+
+    /**
+     * Returns an estimate of the heap memory held by this description. Layout arrays shared with the
+     * other trees stamped from the same template are counted in full, so the estimate is an upper bound.
+     *
+     * @return The estimated size, in bytes.
+     */
+    public long estimatedHeapBytes() {
+        return HeapSize.object(5, 2 * Float.BYTES + 2 * Integer.BYTES + 3 * Long.BYTES)
+                + HeapSize.array(leafColors.length, Byte.BYTES)
+                + HeapSize.array(leafDelays.length, Byte.BYTES)
+                + HeapSize.array(fruitColors.length, Byte.BYTES)
+                + HeapSize.array(fruitRegrowDeadlines.length, Float.BYTES);
+    }
+}
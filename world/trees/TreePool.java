@@ -0,0 +1,82 @@
+package pepse.world.trees;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.ObjectPool;
+import pepse.util.TimerWheel;
+import pepse.world.Block;
+import java.awt.*;
+
+/**
+ * The pools of trunk blocks, leaf blocks and fruits released by the trees of detached chunks,
+ * reused to build the trees of the chunks attached next. Must be used from the game thread only.
+ */
+public class TreePool {
+
+    private static final Vector2 BLOCK_DIMENSIONS = Vector2.ONES.mult(Block.SIZE);
+
+    private final ObjectPool<Block> trunks = new ObjectPool<>();
+    private final ObjectPool<Block> leaves = new ObjectPool<>();
+    private final ObjectPool<Fruit> fruits = new ObjectPool<>();
+
+    /**
+     * Returns a trunk block, reused from the pool when possible.
+     *
+     * @param topLeftCorner Position of the block, in window coordinates (pixels).
+     * @param renderable    The renderable representing the block.
+     * @return The trunk block.
+     */
+    Block trunk(Vector2 topLeftCorner, Renderable renderable) {
+        return Block.obtain(trunks, topLeftCorner, BLOCK_DIMENSIONS, renderable);
+    }
+
+    /**
+     * Returns a leaf block, reused from the pool when possible.
+     *
+     * @param topLeftCorner Position of the block, in window coordinates (pixels).
+     * @param renderable    The renderable representing the block.
+     * @return The leaf block.
+     */
+    Block leaf(Vector2 topLeftCorner, Renderable renderable) {
+        return Block.obtain(leaves, topLeftCorner, BLOCK_DIMENSIONS, renderable);
+    }
+
+    /**
+     * Returns a fruit, reused from the pool when possible.
+     *
+     * @param position       The position of the fruit in the game world.
+     * @param fruitColor     The color to render the fruit with.
+     * @param regrowDeadline The time on the regrowth wheel's clock at which the fruit grows back,
+     *                       or 0 if it is not eaten.
+     * @param regrowth       The world's shared timer wheel that makes eaten fruits grow back.
+     * @return The fruit.
+     */
+    Fruit fruit(Vector2 position, Color fruitColor, float regrowDeadline, TimerWheel regrowth) {
+        Fruit fruit = fruits.poll();
+        if (fruit == null)
+            return new Fruit(position, fruitColor, regrowDeadline, regrowth);
+        fruit.reuse(position, fruitColor, regrowDeadline);
+        return fruit;
+    }
+
+    /**
+     * Makes the game objects recycled since the last call available for reuse. Called once per frame.
+     */
+    public void reclaim() {
+        trunks.reclaim();
+        leaves.reclaim();
+        fruits.reclaim();
+    }
+
+    /**
+     * Takes back the game objects of a tree that was removed from the game.
+     * The tree's data must have been read first, since its fruits will be reused.
+     *
+     * @param tree The released tree.
+     */
+    public void recycle(Tree tree) {
+        trunks.recycleAll(tree.getTrunkBlocks());
+        leaves.recycleAll(tree.getLeafBlocks());
+        fruits.recycleAll(tree.getFruits());
+    }
+}
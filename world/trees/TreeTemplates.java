@@ -0,0 +1,57 @@
+package pepse.world.trees;
+
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import pepse.util.SeedHasher;
+import java.util.Random;
+
+/**
+ * A fixed library of tree canopy layouts, built once per world, that trees are stamped from.
+ * <p>
+ * For every trunk height, a number of leaf and fruit layouts are rolled up front from the world seed.
+ * A tree is then described by picking its trunk height, layout and trunk color from the bits of one hash,
+ * instead of rolling a random number for every cell of its canopy. Stamped trees share their layout's
+ * arrays, so a chunk's trees also take less memory. The library is read-only once built,
+ * so it is safe to use from the chunk generator's worker threads.
+ */
+public class TreeTemplates {
+
+    private static final long TEMPLATE_SALT = 4;
+    private static final int LAYOUT_SHIFT = 8;
+    private static final int TRUNK_COLOR_SHIFT = 32;
+
+    private final TreeData[][] templates;
+
+    /**
+     * Constructs a TreeTemplates library, rolling all its layouts.
+     *
+     * @param seed               The world seed, which the layouts are derived from.
+     * @param templatesPerHeight The number of layouts for every trunk height.
+     */
+    public TreeTemplates(long seed, int templatesPerHeight) {
+        int[] trunkHeights = Tree.trunkHeights();
+        templates = new TreeData[trunkHeights.length][templatesPerHeight];
+        for (int i = 0; i < trunkHeights.length; i++) {
+            for (int j = 0; j < templatesPerHeight; j++) {
+                Random rand = new Random(SeedHasher.hash(seed, (long) i * templatesPerHeight + j, TEMPLATE_SALT));
+                templates[i][j] = Tree.generateData(Vector2.ZERO, trunkHeights[i], 0, rand);
+            }
+        }
+    }
+
+    /**
+     * Describes a tree at a position, stamped from the layout picked by a hash.
+     * The same hash always gives the same tree.
+     *
+     * @param x    The x-coordinate of the tree's base.
+     * @param y    The y-coordinate of the tree's base.
+     * @param hash A hash of the tree's position and the world seed.
+     * @return The tree's data description, with none of its fruits eaten.
+     */
+    public TreeData stamp(float x, float y, long hash) {
+        TreeData[] layouts = templates[(int) Math.floorMod(hash, (long) templates.length)];
+        TreeData layout = layouts[(int) Math.floorMod(hash >>> LAYOUT_SHIFT, (long) layouts.length)];
+        int trunkColor = (int) Math.floorMod(hash >>> TRUNK_COLOR_SHIFT, (long) ColorSupplier.PALETTE_SIZE);
+        return layout.stampAt(x, y, trunkColor);
+    }
+}